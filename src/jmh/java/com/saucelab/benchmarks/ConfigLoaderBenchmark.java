@@ -0,0 +1,33 @@
+package com.saucelab.benchmarks;
+
+import com.saucelab.config.ConfigLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of typed config lookups, which page objects and DriverManager make on every wait.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigLoaderBenchmark {
+    
+    @Benchmark
+    public int getIntProperty() {
+        return ConfigLoader.getIntProperty("explicit.wait", 15);
+    }
+    
+    @Benchmark
+    public int getIntPropertyMissingKey() {
+        return ConfigLoader.getIntProperty("benchmark.missing.key", 15);
+    }
+}
@@ -0,0 +1,150 @@
+package com.saucelab.benchmarks;
+
+import com.saucelab.config.ConfigLoader;
+import com.saucelab.driver.DriverManager;
+import com.saucelab.pages.CartPage;
+import com.saucelab.pages.LoginPage;
+import com.saucelab.pages.ProductsPage;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.android.AndroidDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page-object calls next to the equivalent raw driver calls, both against a stand-in server.
+ * The difference between each pair is the client-side cost added by BasePage and the page objects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageObjectBenchmark {
+    
+    private static final String CART_ITEM = "Sauce Labs Backpack";
+    private static final By PRODUCTS_TITLE = By.xpath("//android.widget.TextView[@text='PRODUCTS']");
+    
+    @State(Scope.Thread)
+    public static class LoginScreen extends StubDriverState {
+        
+        @Setup(Level.Trial)
+        public void open() {
+            openSession();
+        }
+        
+        @Setup(Level.Invocation)
+        public void backToLogin() {
+            resetApp();
+        }
+        
+        @TearDown(Level.Trial)
+        public void close() {
+            closeSession();
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class ProductsScreen extends StubDriverState {
+        
+        @Setup(Level.Trial)
+        public void open() {
+            openSession();
+            new LoginPage().login(ConfigLoader.getTestUsername(), ConfigLoader.getTestPassword());
+        }
+        
+        @TearDown(Level.Trial)
+        public void close() {
+            closeSession();
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class CartScreen extends StubDriverState {
+        
+        CartPage cartPage;
+        
+        @Setup(Level.Trial)
+        public void open() {
+            openSession();
+            cartPage = new LoginPage().login(ConfigLoader.getTestUsername(), ConfigLoader.getTestPassword())
+                .selectFirstProduct()
+                .addToCart()
+                .goToCart();
+        }
+        
+        @TearDown(Level.Trial)
+        public void close() {
+            closeSession();
+        }
+    }
+    
+    // ==================== LOGIN ====================
+    
+    @Benchmark
+    public ProductsPage loginPageLogin(LoginScreen state) {
+        return new LoginPage().login(ConfigLoader.getTestUsername(), ConfigLoader.getTestPassword());
+    }
+    
+    @Benchmark
+    public void rawLogin(LoginScreen state) {
+        AndroidDriver driver = DriverManager.getDriver();
+        WebElement username = driver.findElement(AppiumBy.accessibilityId("test-Username"));
+        username.clear();
+        username.sendKeys(ConfigLoader.getTestUsername());
+        WebElement password = driver.findElement(AppiumBy.accessibilityId("test-Password"));
+        password.clear();
+        password.sendKeys(ConfigLoader.getTestPassword());
+        driver.findElement(AppiumBy.accessibilityId("test-LOGIN")).click();
+        // LoginPage.login returns once the Products page shows, so wait for it here too
+        new WebDriverWait(driver, Duration.ofSeconds(ConfigLoader.getExplicitWait()))
+            .until(ExpectedConditions.visibilityOfElementLocated(PRODUCTS_TITLE));
+    }
+    
+    // ==================== PRODUCTS ====================
+    
+    @Benchmark
+    public int productsPageGetProductCount(ProductsScreen state) {
+        return new ProductsPage().getProductCount();
+    }
+    
+    @Benchmark
+    public int rawProductCount(ProductsScreen state) {
+        return DriverManager.getDriver().findElements(AppiumBy.accessibilityId("test-Item")).size();
+    }
+    
+    // ==================== CART ====================
+    
+    @Benchmark
+    public boolean cartPageIsItemInCart(CartScreen state) {
+        return state.cartPage.isItemInCart(CART_ITEM);
+    }
+    
+    @Benchmark
+    public void rawIsItemInCart(CartScreen state, Blackhole blackhole) {
+        for (WebElement item : DriverManager.getDriver().findElements(AppiumBy.accessibilityId("test-Item title"))) {
+            if (item.getText().equals(CART_ITEM)) {
+                blackhole.consume(true);
+                return;
+            }
+        }
+        blackhole.consume(false);
+    }
+}
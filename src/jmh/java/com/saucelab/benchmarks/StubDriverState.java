@@ -0,0 +1,43 @@
+package com.saucelab.benchmarks;
+
+import com.saucelab.config.ConfigLoader;
+import com.saucelab.driver.DeviceEndpoint;
+import com.saucelab.driver.DriverManager;
+import com.saucelab.driver.SessionPool;
+import com.saucelab.stub.StubAppiumServer;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Shared setup for benchmarks that drive page objects against a stand-in Appium server.
+ * Latency per command defaults to zero so results show client-side overhead only;
+ * pass -Dstub.latency.ms to model a real server.
+ */
+public abstract class StubDriverState {
+    
+    private StubAppiumServer server;
+    
+    protected void openSession() {
+        server = StubAppiumServer.start(0)
+            .withLatency(Duration.ofMillis(ConfigLoader.getIntProperty("stub.latency.ms", 0)));
+        ConfigLoader.override("app.path", "");
+        SessionPool.setInstance(new SessionPool(
+            Collections.singletonList(new DeviceEndpoint("bench", server.getUrl(), "bench-emulator", ConfigLoader.getPlatformVersion())),
+            Duration.ofSeconds(10)));
+        DriverManager.initDriver();
+    }
+    
+    protected void closeSession() {
+        DriverManager.quitDriver();
+        server.close();
+    }
+    
+    /**
+     * Clears app data so the app is back on the login screen.
+     */
+    protected void resetApp() {
+        DriverManager.getDriver().executeScript("mobile: clearApp", Map.of("appId", ConfigLoader.getAppPackage()));
+    }
+}
@@ -1,115 +1,363 @@
 package com.saucelab.config;
 
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.util.Properties;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 /**
- * Configuration loader for reading properties from config.properties file.
+ * Configuration loader for reading properties from config.properties on the classpath.
+ * Environment variables (SAUCELAB_ANDROID_DEVICE_NAME=...) and JVM system properties
+ * (-Dandroid.device.name=...) override the file, in that order; only suite keys are taken
+ * from system properties (see {@link ConfigSnapshot}).
+ * Values are read once into an immutable {@link ConfigSnapshot}; later changes to system
+ * properties are not seen unless applied through {@link #override(String, String)}.
  */
 public class ConfigLoader {
     
-    private static Properties properties;
-    private static final String CONFIG_PATH = "src/test/resources/config.properties";
+    private static volatile ConfigSnapshot snapshot = ConfigSnapshot.load();
     
-    static {
-        loadProperties();
+    /**
+     * Gets the current configuration snapshot.
+     */
+    public static ConfigSnapshot snapshot() {
+        return snapshot;
     }
     
-    private static void loadProperties() {
-        properties = new Properties();
-        try (FileInputStream fis = new FileInputStream(CONFIG_PATH)) {
-            properties.load(fis);
-            System.out.println("[CONFIG] Loaded configuration from: " + CONFIG_PATH);
-        } catch (IOException e) {
-            System.err.println("[CONFIG] Failed to load config.properties: " + e.getMessage());
-            throw new RuntimeException("Could not load configuration file", e);
-        }
+    /**
+     * Replaces one key for the rest of the run, e.g. when a harness starts its own servers.
+     * Call before any driver is created; readers holding the old snapshot keep it.
+     */
+    public static synchronized void override(String key, String value) {
+        snapshot = snapshot.withOverrides(Collections.singletonMap(key, value));
     }
     
     public static String getProperty(String key) {
-        return properties.getProperty(key);
+        return snapshot.get(key);
     }
     
     public static String getProperty(String key, String defaultValue) {
-        return properties.getProperty(key, defaultValue);
+        return snapshot.get(key, defaultValue);
     }
     
     public static int getIntProperty(String key, int defaultValue) {
-        String value = properties.getProperty(key);
-        if (value != null) {
-            try {
-                return Integer.parseInt(value);
-            } catch (NumberFormatException e) {
-                return defaultValue;
-            }
-        }
-        return defaultValue;
+        return snapshot.getInt(key, defaultValue);
+    }
+    
+    /**
+     * Gets every property under a prefix, keyed by the rest of the key.
+     */
+    public static Map<String, String> getPropertiesWithPrefix(String prefix) {
+        return snapshot.getByPrefix(prefix);
     }
     
     // Convenience methods for common properties
     public static String getAppiumServerUrl() {
-        return getProperty("appium.server.url", "http://127.0.0.1:4723");
+        return snapshot.getAppiumServerUrl();
     }
     
     public static String getDeviceName() {
-        return getProperty("android.device.name", "emulator-5554");
+        return snapshot.getDeviceName();
     }
     
     public static String getPlatformName() {
-        return getProperty("android.platform.name", "Android");
+        return snapshot.getPlatformName();
     }
     
     public static String getPlatformVersion() {
-        return getProperty("android.platform.version", "13");
+        return snapshot.getPlatformVersion();
     }
     
     public static String getAutomationName() {
-        return getProperty("android.automation.name", "UiAutomator2");
+        return snapshot.getAutomationName();
     }
     
     public static String getAppPackage() {
-        return getProperty("app.package", "com.swaglabsmobileapp");
+        return snapshot.getAppPackage();
     }
     
     public static String getAppActivity() {
-        return getProperty("app.activity", "com.swaglabsmobileapp.MainActivity");
+        return snapshot.getAppActivity();
     }
     
     public static String getAppPath() {
-        return getProperty("app.path", "src/main/resources/app/Android.SauceLabs.Mobile.Sample.app.2.7.1.apk");
+        return snapshot.getAppPath();
     }
     
     /**
-     * Gets the absolute path to the APK file.
-     * Converts relative path to absolute path based on user.dir
+     * Gets the absolute path to the APK file. A relative app.path is resolved against
+     * app.base.dir, not the working directory; see {@link ConfigSnapshot#getAbsoluteAppPath()}.
+     * @return The absolute path, or null if no APK path is configured
      */
     public static String getAbsoluteAppPath() {
-        String appPath = getAppPath();
-        if (appPath == null || appPath.isEmpty()) {
-            return null;
-        }
-        // If already absolute path, return as is
-        if (appPath.startsWith("/") || appPath.contains(":")) {
-            return appPath;
-        }
-        // Convert relative path to absolute
-        return System.getProperty("user.dir") + "/" + appPath;
+        return snapshot.getAbsoluteAppPath();
+    }
+    
+    /**
+     * Whether sessions skip the app capability when the device already has the same APK build.
+     */
+    public static boolean isAppInstallCacheEnabled() {
+        return snapshot.isAppInstallCacheEnabled();
+    }
+    
+    /**
+     * Gets the local file recording which APK digest is installed on each device.
+     * Defaults to ~/.saucelab/installed-apps.properties so it survives mvn clean.
+     */
+    public static String getAppInstallStateFile() {
+        return snapshot.getAppInstallStateFile();
     }
     
     public static String getTestUsername() {
-        return getProperty("test.username", "standard_user");
+        return snapshot.getTestUsername();
     }
     
     public static String getTestPassword() {
-        return getProperty("test.password", "secret_sauce");
+        return snapshot.getTestPassword();
+    }
+    
+    /**
+     * Gets the fast login path LoginPage tries before the form: "ui" (none) or "deeplink".
+     */
+    public static String getLoginStrategy() {
+        return snapshot.getLoginStrategy();
+    }
+    
+    public static String getLoginDeepLink() {
+        return snapshot.getLoginDeepLink();
     }
     
     public static int getImplicitWait() {
-        return getIntProperty("implicit.wait", 10);
+        return snapshot.getImplicitWait();
     }
     
     public static int getExplicitWait() {
-        return getIntProperty("explicit.wait", 15);
+        return snapshot.getExplicitWait();
+    }
+    
+    /**
+     * Gets the budget for fast presence checks (in milliseconds).
+     */
+    public static int getPresenceTimeoutMillis() {
+        return snapshot.getPresenceTimeoutMillis();
+    }
+    
+    /**
+     * Gets the budget for fast absence checks (in milliseconds).
+     */
+    public static int getAbsenceTimeoutMillis() {
+        return snapshot.getAbsenceTimeoutMillis();
+    }
+    
+    /**
+     * Gets the polling interval used by presence and absence checks (in milliseconds).
+     */
+    public static int getPresencePollMillis() {
+        return snapshot.getPresencePollMillis();
+    }
+    
+    /**
+     * Gets the number of device endpoints configured for the session pool.
+     * Defaults to 1, which uses the single appium.server.url / android.device.name pair.
+     */
+    public static int getDeviceCount() {
+        return snapshot.getDeviceMatrix().size();
+    }
+    
+    /**
+     * Gets the device matrix built from device.count and the device.N.* keys.
+     */
+    public static List<DeviceProfile> getDeviceMatrix() {
+        return snapshot.getDeviceMatrix();
+    }
+    
+    /**
+     * Whether sessions are kept for the whole suite and reset between test classes.
+     */
+    public static boolean isSessionReuse() {
+        return snapshot.isSessionReuse();
+    }
+    
+    /**
+     * Gets how many sessions to open concurrently at suite start; 0 keeps session creation lazy.
+     */
+    public static int getSessionPrewarmCount() {
+        return snapshot.getSessionPrewarmCount();
+    }
+    
+    /**
+     * Gets the first interval between polls of a composite wait (in milliseconds).
+     */
+    public static int getWaitPollInitialMillis() {
+        return snapshot.getWaitPollInitialMillis();
+    }
+    
+    /**
+     * Gets the longest interval between polls of a composite wait (in milliseconds).
+     */
+    public static int getWaitPollMaxMillis() {
+        return snapshot.getWaitPollMaxMillis();
+    }
+    
+    /**
+     * Gets the factor the composite wait poll interval grows by after each poll.
+     */
+    public static double getWaitPollBackoff() {
+        return snapshot.getWaitPollBackoff();
+    }
+    
+    /**
+     * Whether page objects switch the session to their UiAutomator2 settings profile when they are driven.
+     */
+    public static boolean isSettingsProfilesEnabled() {
+        return snapshot.isSettingsProfilesEnabled();
+    }
+    
+    /**
+     * Whether simple XPath locators are sent to the driver as equivalent UiSelector locators.
+     */
+    public static boolean isLocatorRewriteEnabled() {
+        return snapshot.isLocatorRewriteEnabled();
+    }
+    
+    /**
+     * Gets how many finds of each rewritten locator still use the XPath, to measure the time saved.
+     */
+    public static int getLocatorRewriteCalibration() {
+        return snapshot.getLocatorRewriteCalibration();
+    }
+    
+    /**
+     * Gets the most scrolls a catalog crawl makes before giving up on reaching the end of the list.
+     */
+    public static int getCatalogMaxScrolls() {
+        return snapshot.getCatalogMaxScrolls();
+    }
+    
+    /**
+     * Whether open sessions are tracked and idle or orphaned ones closed in the background.
+     */
+    public static boolean isSessionWatchdogEnabled() {
+        return snapshot.isSessionWatchdogEnabled();
+    }
+    
+    /**
+     * Gets how long a session may go without a command before the watchdog closes it (in seconds, 0 = never).
+     */
+    public static int getSessionIdleTimeout() {
+        return snapshot.getSessionIdleTimeout();
+    }
+    
+    /**
+     * Gets how often the watchdog checks the open sessions (in seconds).
+     */
+    public static int getSessionWatchdogInterval() {
+        return snapshot.getSessionWatchdogInterval();
+    }
+    
+    /**
+     * Gets the thread type for ScenarioRunner: "platform" or "virtual" (Java 21+).
+     */
+    public static String getScenarioThreads() {
+        return snapshot.getScenarioThreads();
+    }
+    
+    /**
+     * Whether page objects answer reads from a parsed page source snapshot by default.
+     */
+    public static boolean isPageSnapshotEnabled() {
+        return snapshot.isPageSnapshotEnabled();
+    }
+    
+    /**
+     * Whether driver commands are timed into per-command latency histograms.
+     */
+    public static boolean isCommandMetricsEnabled() {
+        return snapshot.isCommandMetricsEnabled();
+    }
+    
+    public static String getCommandMetricsOutput() {
+        return snapshot.getCommandMetricsOutput();
+    }
+    
+    public static int getPoolAcquireTimeout() {
+        return snapshot.getPoolAcquireTimeout();
+    }
+    
+    /**
+     * Gets how many consecutive failures open an endpoint's circuit; 0 disables the breaker.
+     */
+    public static int getCircuitFailureThreshold() {
+        return snapshot.getCircuitFailureThreshold();
+    }
+    
+    /**
+     * Gets how long an open circuit refuses work before probing the endpoint (in seconds).
+     */
+    public static int getCircuitCoolDown() {
+        return snapshot.getCircuitCoolDown();
+    }
+    
+    /**
+     * Gets this machine's 0-based shard index (shard.index).
+     */
+    public static int getShardIndex() {
+        return snapshot.getShardIndex();
+    }
+    
+    /**
+     * Gets the number of machines the suite is split across (shard.count); 1 disables sharding.
+     */
+    public static int getShardCount() {
+        return snapshot.getShardCount();
+    }
+    
+    /**
+     * Gets the file holding per-test durations from earlier runs, used to balance shards.
+     */
+    public static String getShardHistoryFile() {
+        return snapshot.getShardHistoryFile();
+    }
+    
+    /**
+     * Gets the step timing mode: "off", "record" (append to the baseline) or "check" (compare with it).
+     */
+    public static String getPerfMode() {
+        return snapshot.getPerfMode();
+    }
+    
+    public static String getPerfBaselineFile() {
+        return snapshot.getPerfBaselineFile();
+    }
+    
+    /**
+     * Gets the percentile compared between the baseline and the current run.
+     */
+    public static int getPerfPercentile() {
+        return snapshot.getPerfPercentile();
+    }
+    
+    /**
+     * Gets the allowed slowdown per step (in percent).
+     */
+    public static int getPerfTolerancePercent() {
+        return snapshot.getPerfTolerancePercent();
+    }
+    
+    /**
+     * Gets the allowed slowdown per step on top of the percentage (in milliseconds).
+     */
+    public static int getPerfToleranceMillis() {
+        return snapshot.getPerfToleranceMillis();
+    }
+    
+    /**
+     * Gets how many recent samples per step the baseline keeps.
+     */
+    public static int getPerfBaselineSamples() {
+        return snapshot.getPerfBaselineSamples();
+    }
+    
+    public static String getPerfReportOutput() {
+        return snapshot.getPerfReportOutput();
     }
 }
@@ -0,0 +1,575 @@
+package com.saucelab.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, typed view of the suite configuration, built once at startup.
+ * Sources, lowest precedence first:
+ * <ol>
+ *   <li>config.properties from the classpath (or the file named by -Dconfig.file)</li>
+ *   <li>environment variables prefixed SAUCELAB_ (SAUCELAB_APPIUM_SERVER_URL sets appium.server.url)</li>
+ *   <li>JVM system properties with the same key (-Dappium.server.url=...); only keys the file
+ *       already has or that start with one of the suite's prefixes, so JVM properties such as
+ *       java.version or user.dir do not leak into the configuration</li>
+ * </ol>
+ * The suite's settings are parsed once into typed fields, so a malformed value fails the load
+ * with the key in the message instead of on every lookup; other int lookups are memoized.
+ */
+public final class ConfigSnapshot {
+    
+    private static final Logger log = LoggerFactory.getLogger(ConfigSnapshot.class);
+    
+    static final String RESOURCE = "config.properties";
+    static final String ENV_PREFIX = "SAUCELAB_";
+    // Namespaces the suite reads; system properties outside them are not configuration
+    static final List<String> KNOWN_PREFIXES = Collections.unmodifiableList(Arrays.asList(
+        "absence.", "android.", "app.", "appium.", "catalog.", "circuit.", "device.", "explicit.",
+        "implicit.", "locator.", "login.", "metrics.", "page.", "perf.", "presence.", "scenario.",
+        "session.", "settings.", "shard.", "stub.", "test.", "wait."));
+    
+    private final Map<String, String> values;
+    private final Map<String, Integer> parsedInts = new ConcurrentHashMap<>();
+    
+    private final String appiumServerUrl;
+    private final String deviceName;
+    private final String platformName;
+    private final String platformVersion;
+    private final String automationName;
+    private final String appPackage;
+    private final String appActivity;
+    private final String appPath;
+    private final String testUsername;
+    private final String testPassword;
+    private final String loginStrategy;
+    private final String loginDeepLink;
+    private final boolean appInstallCache;
+    private final String appInstallStateFile;
+    private final int implicitWait;
+    private final int explicitWait;
+    private final int presenceTimeoutMillis;
+    private final int absenceTimeoutMillis;
+    private final int presencePollMillis;
+    private final int poolAcquireTimeout;
+    private final boolean sessionReuse;
+    private final int sessionPrewarmCount;
+    private final boolean sessionWatchdogEnabled;
+    private final int sessionIdleTimeout;
+    private final int sessionWatchdogInterval;
+    private final int waitPollInitialMillis;
+    private final int waitPollMaxMillis;
+    private final double waitPollBackoff;
+    private final boolean settingsProfilesEnabled;
+    private final boolean locatorRewriteEnabled;
+    private final int locatorRewriteCalibration;
+    private final int catalogMaxScrolls;
+    private final String scenarioThreads;
+    private final boolean pageSnapshotEnabled;
+    private final boolean commandMetricsEnabled;
+    private final String commandMetricsOutput;
+    private final int circuitFailureThreshold;
+    private final int circuitCoolDown;
+    private final int shardIndex;
+    private final int shardCount;
+    private final String shardHistoryFile;
+    private final String perfMode;
+    private final String perfBaselineFile;
+    private final int perfPercentile;
+    private final int perfTolerancePercent;
+    private final int perfToleranceMillis;
+    private final int perfBaselineSamples;
+    private final String perfReportOutput;
+    private final List<DeviceProfile> deviceMatrix;
+    
+    private ConfigSnapshot(Map<String, String> values) {
+        this.values = Collections.unmodifiableMap(values);
+        this.appiumServerUrl = get("appium.server.url", "http://127.0.0.1:4723");
+        this.deviceName = get("android.device.name", "emulator-5554");
+        this.platformName = get("android.platform.name", "Android");
+        this.platformVersion = get("android.platform.version", "13");
+        this.automationName = get("android.automation.name", "UiAutomator2");
+        this.appPackage = get("app.package", "com.swaglabsmobileapp");
+        this.appActivity = get("app.activity", "com.swaglabsmobileapp.MainActivity");
+        this.appPath = get("app.path", "src/main/resources/app/Android.SauceLabs.Mobile.Sample.app.2.7.1.apk");
+        this.testUsername = get("test.username", "standard_user");
+        this.testPassword = get("test.password", "secret_sauce");
+        this.loginStrategy = get("login.strategy", "ui");
+        this.loginDeepLink = get("login.deeplink.url", "swaglabs://swag-overview/");
+        this.appInstallCache = requireBoolean("app.install.cache", false);
+        this.appInstallStateFile = get("app.install.state.file",
+            System.getProperty("user.home") + "/.saucelab/installed-apps.properties");
+        this.implicitWait = requireInt("implicit.wait", 10);
+        this.explicitWait = requireInt("explicit.wait", 15);
+        this.presenceTimeoutMillis = requireInt("presence.timeout.ms", 5000);
+        this.absenceTimeoutMillis = requireInt("absence.timeout.ms", 3000);
+        this.presencePollMillis = requireInt("presence.poll.ms", 250);
+        this.poolAcquireTimeout = requireInt("device.pool.acquire.timeout", 300);
+        this.sessionReuse = requireBoolean("session.reuse", false);
+        this.sessionPrewarmCount = requireInt("session.prewarm", 0);
+        this.sessionWatchdogEnabled = requireBoolean("session.watchdog.enabled", false);
+        this.sessionIdleTimeout = requireInt("session.idle.timeout", 240);
+        this.sessionWatchdogInterval = requireInt("session.watchdog.interval", 30);
+        this.waitPollInitialMillis = requireInt("wait.poll.initial.ms", 50);
+        this.waitPollMaxMillis = requireInt("wait.poll.max.ms", 500);
+        this.waitPollBackoff = requireDouble("wait.poll.backoff", 1.5);
+        this.settingsProfilesEnabled = requireBoolean("settings.profiles.enabled", false);
+        this.locatorRewriteEnabled = requireBoolean("locator.rewrite", false);
+        this.locatorRewriteCalibration = requireInt("locator.rewrite.calibration", 1);
+        this.catalogMaxScrolls = requireInt("catalog.max.scrolls", 20);
+        this.scenarioThreads = requireOneOf("scenario.threads", "platform", "platform", "virtual");
+        this.pageSnapshotEnabled = requireBoolean("page.snapshot.enabled", false);
+        this.commandMetricsEnabled = requireBoolean("metrics.enabled", true);
+        this.commandMetricsOutput = get("metrics.output", "target/command-metrics.json");
+        this.circuitFailureThreshold = requireInt("circuit.failure.threshold", 3);
+        this.circuitCoolDown = requireInt("circuit.cooldown", 60);
+        this.shardIndex = requireInt("shard.index", 0);
+        this.shardCount = requireInt("shard.count", 1);
+        this.shardHistoryFile = get("shard.history.file", ".test-durations.properties");
+        this.perfMode = requireOneOf("perf.mode", "off", "off", "record", "check");
+        this.perfBaselineFile = get("perf.baseline.file", "perf-baseline.json");
+        this.perfPercentile = requireInt("perf.percentile", 90);
+        this.perfTolerancePercent = requireInt("perf.tolerance.percent", 20);
+        this.perfToleranceMillis = requireInt("perf.tolerance.ms", 100);
+        this.perfBaselineSamples = requireInt("perf.baseline.samples", 20);
+        this.perfReportOutput = get("perf.report.output", "target/perf-gate.txt");
+        this.deviceMatrix = buildDeviceMatrix();
+    }
+    
+    /**
+     * Loads the snapshot from the classpath, environment and system properties.
+     * Does not depend on the working directory unless -Dconfig.file is given.
+     * @return ConfigSnapshot instance
+     */
+    public static ConfigSnapshot load() {
+        Properties file = new Properties();
+        String configFile = System.getProperty("config.file");
+        try (InputStream in = configFile != null
+                ? Files.newInputStream(Paths.get(configFile))
+                : ConfigSnapshot.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException(RESOURCE + " not found on the classpath");
+            }
+            file.load(in);
+            log.info("Loaded configuration from: {}", configFile != null ? configFile : "classpath:" + RESOURCE);
+        } catch (IOException e) {
+            log.error("Failed to load config.properties: {}", e.getMessage());
+            throw new RuntimeException("Could not load configuration file", e);
+        }
+        Map<String, String> system = new HashMap<>();
+        for (String key : System.getProperties().stringPropertyNames()) {
+            system.put(key, System.getProperty(key));
+        }
+        return of(file, System.getenv(), system);
+    }
+    
+    /**
+     * Builds a snapshot from explicit sources, e.g. in tests.
+     * @param file Values from config.properties
+     * @param environment Environment variables; only SAUCELAB_* entries are used
+     * @param systemProperties JVM system properties
+     */
+    public static ConfigSnapshot of(Properties file, Map<String, String> environment, Map<String, String> systemProperties) {
+        Map<String, String> merged = new HashMap<>();
+        for (String key : file.stringPropertyNames()) {
+            merged.put(key, file.getProperty(key));
+        }
+        for (Map.Entry<String, String> env : environment.entrySet()) {
+            if (env.getKey().startsWith(ENV_PREFIX)) {
+                merged.put(env.getKey().substring(ENV_PREFIX.length()).toLowerCase().replace('_', '.'), env.getValue());
+            }
+        }
+        for (Map.Entry<String, String> property : systemProperties.entrySet()) {
+            if (merged.containsKey(property.getKey()) || isSuiteKey(property.getKey())) {
+                merged.put(property.getKey(), property.getValue());
+            }
+        }
+        return new ConfigSnapshot(merged);
+    }
+    
+    private static boolean isSuiteKey(String key) {
+        for (String prefix : KNOWN_PREFIXES) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Returns a copy of this snapshot with some keys replaced.
+     * @param overrides Keys to set
+     * @return New ConfigSnapshot; this one is unchanged
+     */
+    public ConfigSnapshot withOverrides(Map<String, String> overrides) {
+        Map<String, String> merged = new HashMap<>(values);
+        merged.putAll(overrides);
+        return new ConfigSnapshot(merged);
+    }
+    
+    private List<DeviceProfile> buildDeviceMatrix() {
+        int count = requireInt("device.count", 1);
+        List<DeviceProfile> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String prefix = "device." + i + ".";
+            rows.add(new DeviceProfile(i,
+                get(prefix + "server.url", appiumServerUrl),
+                get(prefix + "name", deviceName),
+                get(prefix + "platform.version", platformVersion)));
+        }
+        return Collections.unmodifiableList(rows);
+    }
+    
+    // ==================== GENERIC LOOKUPS ====================
+    
+    public String get(String key) {
+        return values.get(key);
+    }
+    
+    public String get(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+    
+    /**
+     * Gets an int value, parsing it only on first access.
+     */
+    public int getInt(String key, int defaultValue) {
+        Integer parsed = parsedInts.get(key);
+        if (parsed == null) {
+            parsed = parseInt(values.get(key));
+            if (parsed == null) {
+                return defaultValue;
+            }
+            parsedInts.put(key, parsed);
+        }
+        return parsed;
+    }
+    
+    /**
+     * Gets every value whose key starts with the prefix, keyed by the rest of the key.
+     */
+    public Map<String, String> getByPrefix(String prefix) {
+        Map<String, String> matches = new TreeMap<>();
+        values.forEach((key, value) -> {
+            if (key.startsWith(prefix) && key.length() > prefix.length()) {
+                matches.put(key.substring(prefix.length()), value);
+            }
+        });
+        return matches;
+    }
+    
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = values.get(key);
+        return value != null ? Boolean.parseBoolean(value.trim()) : defaultValue;
+    }
+    
+    // ==================== STRICT PARSING (load time) ====================
+    
+    private int requireInt(String key, int defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        Integer parsed = parseInt(value);
+        if (parsed == null) {
+            throw invalid(key, value, "an integer");
+        }
+        return parsed;
+    }
+    
+    private double requireDouble(String key, double defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw invalid(key, value, "a number");
+        }
+    }
+    
+    private boolean requireBoolean(String key, boolean defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        String trimmed = value.trim();
+        if (!"true".equalsIgnoreCase(trimmed) && !"false".equalsIgnoreCase(trimmed)) {
+            throw invalid(key, value, "true or false");
+        }
+        return Boolean.parseBoolean(trimmed);
+    }
+    
+    private String requireOneOf(String key, String defaultValue, String... allowed) {
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        for (String candidate : allowed) {
+            if (candidate.equalsIgnoreCase(value.trim())) {
+                return candidate;
+            }
+        }
+        throw invalid(key, value, "one of " + Arrays.toString(allowed));
+    }
+    
+    private static IllegalStateException invalid(String key, String value, String expected) {
+        return new IllegalStateException("Invalid configuration: " + key + "=" + value + " (expected " + expected + ")");
+    }
+    
+    private static Integer parseInt(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    // ==================== TYPED VALUES ====================
+    
+    public String getAppiumServerUrl() {
+        return appiumServerUrl;
+    }
+    
+    public String getDeviceName() {
+        return deviceName;
+    }
+    
+    public String getPlatformName() {
+        return platformName;
+    }
+    
+    public String getPlatformVersion() {
+        return platformVersion;
+    }
+    
+    public String getAutomationName() {
+        return automationName;
+    }
+    
+    public String getAppPackage() {
+        return appPackage;
+    }
+    
+    public String getAppActivity() {
+        return appActivity;
+    }
+    
+    public String getAppPath() {
+        return appPath;
+    }
+    
+    /**
+     * Resolves app.path to an absolute path. A relative path is resolved against app.base.dir
+     * (the Maven build sets it to the project directory), never the working directory, so the
+     * result does not depend on where the JVM was started.
+     * @return The absolute APK path, or null if app.path is empty
+     * @throws IllegalStateException if app.path is relative and app.base.dir is missing or relative
+     */
+    public String getAbsoluteAppPath() {
+        if (appPath == null || appPath.trim().isEmpty()) {
+            return null;
+        }
+        Path path = Paths.get(appPath.trim());
+        if (path.isAbsolute()) {
+            return path.normalize().toString();
+        }
+        String baseDir = values.get("app.base.dir");
+        if (baseDir == null || baseDir.trim().isEmpty()) {
+            throw new IllegalStateException("Invalid configuration: app.path=" + appPath
+                + " is relative and app.base.dir is not set (expected an absolute app.path, or app.base.dir"
+                + " pointing at the project directory)");
+        }
+        Path base = Paths.get(baseDir.trim());
+        if (!base.isAbsolute()) {
+            throw invalid("app.base.dir", baseDir, "an absolute directory");
+        }
+        return base.resolve(path).normalize().toString();
+    }
+    
+    public String getTestUsername() {
+        return testUsername;
+    }
+    
+    public String getTestPassword() {
+        return testPassword;
+    }
+    
+    public String getLoginStrategy() {
+        return loginStrategy;
+    }
+    
+    public String getLoginDeepLink() {
+        return loginDeepLink;
+    }
+    
+    public boolean isAppInstallCacheEnabled() {
+        return appInstallCache;
+    }
+    
+    public String getAppInstallStateFile() {
+        return appInstallStateFile;
+    }
+    
+    public int getImplicitWait() {
+        return implicitWait;
+    }
+    
+    public int getExplicitWait() {
+        return explicitWait;
+    }
+    
+    public int getPresenceTimeoutMillis() {
+        return presenceTimeoutMillis;
+    }
+    
+    public int getAbsenceTimeoutMillis() {
+        return absenceTimeoutMillis;
+    }
+    
+    public int getPresencePollMillis() {
+        return presencePollMillis;
+    }
+    
+    public int getPoolAcquireTimeout() {
+        return poolAcquireTimeout;
+    }
+    
+    public boolean isSessionReuse() {
+        return sessionReuse;
+    }
+    
+    public int getSessionPrewarmCount() {
+        return sessionPrewarmCount;
+    }
+    
+    public boolean isSessionWatchdogEnabled() {
+        return sessionWatchdogEnabled;
+    }
+    
+    public int getSessionIdleTimeout() {
+        return sessionIdleTimeout;
+    }
+    
+    public int getSessionWatchdogInterval() {
+        return sessionWatchdogInterval;
+    }
+    
+    public int getWaitPollInitialMillis() {
+        return waitPollInitialMillis;
+    }
+    
+    public int getWaitPollMaxMillis() {
+        return waitPollMaxMillis;
+    }
+    
+    public double getWaitPollBackoff() {
+        return waitPollBackoff;
+    }
+    
+    public boolean isSettingsProfilesEnabled() {
+        return settingsProfilesEnabled;
+    }
+    
+    public boolean isLocatorRewriteEnabled() {
+        return locatorRewriteEnabled;
+    }
+    
+    public int getLocatorRewriteCalibration() {
+        return locatorRewriteCalibration;
+    }
+    
+    public int getCatalogMaxScrolls() {
+        return catalogMaxScrolls;
+    }
+    
+    public String getScenarioThreads() {
+        return scenarioThreads;
+    }
+    
+    public boolean isPageSnapshotEnabled() {
+        return pageSnapshotEnabled;
+    }
+    
+    public boolean isCommandMetricsEnabled() {
+        return commandMetricsEnabled;
+    }
+    
+    public String getCommandMetricsOutput() {
+        return commandMetricsOutput;
+    }
+    
+    public int getCircuitFailureThreshold() {
+        return circuitFailureThreshold;
+    }
+    
+    public int getCircuitCoolDown() {
+        return circuitCoolDown;
+    }
+    
+    public int getShardIndex() {
+        return shardIndex;
+    }
+    
+    public int getShardCount() {
+        return shardCount;
+    }
+    
+    public String getShardHistoryFile() {
+        return shardHistoryFile;
+    }
+    
+    public String getPerfMode() {
+        return perfMode;
+    }
+    
+    public String getPerfBaselineFile() {
+        return perfBaselineFile;
+    }
+    
+    public int getPerfPercentile() {
+        return perfPercentile;
+    }
+    
+    public int getPerfTolerancePercent() {
+        return perfTolerancePercent;
+    }
+    
+    public int getPerfToleranceMillis() {
+        return perfToleranceMillis;
+    }
+    
+    public int getPerfBaselineSamples() {
+        return perfBaselineSamples;
+    }
+    
+    public String getPerfReportOutput() {
+        return perfReportOutput;
+    }
+    
+    /**
+     * Gets the device matrix; each parallel worker claims one row through the session pool.
+     * @return Immutable list of rows, in device index order
+     */
+    public List<DeviceProfile> getDeviceMatrix() {
+        return deviceMatrix;
+    }
+}
@@ -0,0 +1,41 @@
+package com.saucelab.config;
+
+/**
+ * One row of the device matrix: the server, device and platform version a worker runs against.
+ * Built from the device.N.* keys, with unset values taken from the single-device settings.
+ */
+public final class DeviceProfile {
+    
+    private final int index;
+    private final String serverUrl;
+    private final String deviceName;
+    private final String platformVersion;
+    
+    public DeviceProfile(int index, String serverUrl, String deviceName, String platformVersion) {
+        this.index = index;
+        this.serverUrl = serverUrl;
+        this.deviceName = deviceName;
+        this.platformVersion = platformVersion;
+    }
+    
+    public int getIndex() {
+        return index;
+    }
+    
+    public String getServerUrl() {
+        return serverUrl;
+    }
+    
+    public String getDeviceName() {
+        return deviceName;
+    }
+    
+    public String getPlatformVersion() {
+        return platformVersion;
+    }
+    
+    @Override
+    public String toString() {
+        return "device." + index + " (" + deviceName + ", Android " + platformVersion + " @ " + serverUrl + ")";
+    }
+}
@@ -0,0 +1,131 @@
+package com.saucelab.driver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which APK build is installed on each device so sessions can skip the app capability.
+ * The APK's SHA-256 is computed once per JVM; the device-to-digest map lives in a local
+ * properties file so it survives between runs. Devices are keyed by name and server URL.
+ */
+public class AppInstallCache {
+    
+    private static final Logger log = LoggerFactory.getLogger(AppInstallCache.class);
+    
+    private static final Map<String, String> DIGESTS = new ConcurrentHashMap<>();
+    
+    private final Path stateFile;
+    
+    public AppInstallCache(Path stateFile) {
+        this.stateFile = stateFile;
+    }
+    
+    /**
+     * Gets the SHA-256 of an APK, hashing the file only on first use in this JVM.
+     * @param apkPath Absolute path of the APK
+     * @return Hex digest
+     */
+    public static String digest(String apkPath) {
+        return DIGESTS.computeIfAbsent(apkPath, AppInstallCache::sha256);
+    }
+    
+    private static String sha256(String path) {
+        long start = System.nanoTime();
+        try (InputStream in = Files.newInputStream(Paths.get(path))) {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                sha.update(buffer, 0, read);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : sha.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            log.info("APK digest {} computed in {} ms", hex.substring(0, 12), (System.nanoTime() - start) / 1_000_000);
+            return hex.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash APK " + path, e);
+        }
+    }
+    
+    private static String deviceKey(DeviceEndpoint endpoint) {
+        return endpoint.getDeviceName() + "@" + endpoint.getServerUrl();
+    }
+    
+    /**
+     * Whether the device was last given exactly this APK build.
+     */
+    public synchronized boolean isInstalled(DeviceEndpoint endpoint, String digest) {
+        return digest.equals(read().get(deviceKey(endpoint)));
+    }
+    
+    /**
+     * Records that the device now has this APK build.
+     */
+    public synchronized void markInstalled(DeviceEndpoint endpoint, String digest) {
+        Map<String, String> state = read();
+        state.put(deviceKey(endpoint), digest);
+        write(state);
+    }
+    
+    /**
+     * Forgets what is installed on the device, e.g. after the cached build turned out to be missing.
+     */
+    public synchronized void forget(DeviceEndpoint endpoint) {
+        Map<String, String> state = read();
+        if (state.remove(deviceKey(endpoint)) != null) {
+            write(state);
+        }
+    }
+    
+    private Map<String, String> read() {
+        Map<String, String> state = new TreeMap<>();
+        if (!Files.isRegularFile(stateFile)) {
+            return state;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(stateFile)) {
+            properties.load(in);
+        } catch (IOException e) {
+            log.warn("Could not read install state from {}: {}", stateFile, e.getMessage());
+        }
+        for (String key : properties.stringPropertyNames()) {
+            state.put(key, properties.getProperty(key));
+        }
+        return state;
+    }
+    
+    private void write(Map<String, String> state) {
+        StringBuilder out = new StringBuilder("# APK digest installed per device (name@server), used to skip reinstalls\n");
+        state.forEach((device, digest) -> out.append(escape(device)).append('=').append(digest).append('\n'));
+        try {
+            if (stateFile.getParent() != null) {
+                Files.createDirectories(stateFile.getParent());
+            }
+            Files.write(stateFile, out.toString().getBytes(StandardCharsets.ISO_8859_1));
+        } catch (IOException e) {
+            log.warn("Could not save install state to {}: {}", stateFile, e.getMessage());
+        }
+    }
+    
+    /**
+     * Escapes the characters properties files treat specially in keys (the URL has a ':').
+     */
+    private static String escape(String key) {
+        return key.replace("\\", "\\\\").replace(":", "\\:").replace("=", "\\=").replace(" ", "\\ ");
+    }
+}
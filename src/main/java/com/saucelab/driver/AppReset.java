@@ -0,0 +1,41 @@
+package com.saucelab.driver;
+
+import io.appium.java_client.android.AndroidDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * Resets the app under test inside an existing Appium session.
+ * Used in session reuse mode so a test class starts from the login screen
+ * without paying for a new session (APK check, UiAutomator2 server start, app launch wait).
+ */
+public final class AppReset {
+    
+    private static final Logger log = LoggerFactory.getLogger(AppReset.class);
+    
+    private AppReset() {
+        // Utility class
+    }
+    
+    /**
+     * Terminates the app, clears its data and activates it again.
+     * @param driver The session to reset
+     * @param appPackage The package of the app under test
+     * @return true if all reset commands succeeded, false if the session should be replaced
+     */
+    public static boolean reset(AndroidDriver driver, String appPackage) {
+        long start = System.currentTimeMillis();
+        try {
+            driver.terminateApp(appPackage);
+            driver.executeScript("mobile: clearApp", Map.of("appId", appPackage));
+            driver.activateApp(appPackage);
+            log.info("App {} reset in {} ms", appPackage, System.currentTimeMillis() - start);
+            return true;
+        } catch (Exception e) {
+            log.warn("App reset failed, a fresh session will be created: {}", e.getMessage());
+            return false;
+        }
+    }
+}
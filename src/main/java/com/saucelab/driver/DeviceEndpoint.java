@@ -0,0 +1,62 @@
+package com.saucelab.driver;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Objects;
+
+/**
+ * A single Appium server / device pair that sessions can be created against.
+ * Instances are immutable and are handed out by the {@link SessionPool}.
+ */
+public final class DeviceEndpoint {
+    
+    private final String id;
+    private final URL serverUrl;
+    private final String deviceName;
+    private final String platformVersion;
+    
+    public DeviceEndpoint(String id, String serverUrl, String deviceName, String platformVersion) {
+        this.id = Objects.requireNonNull(id, "id");
+        try {
+            this.serverUrl = new URL(Objects.requireNonNull(serverUrl, "serverUrl"));
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid Appium server URL for endpoint " + id + ": " + serverUrl, e);
+        }
+        this.deviceName = Objects.requireNonNull(deviceName, "deviceName");
+        this.platformVersion = platformVersion;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public URL getServerUrl() {
+        return serverUrl;
+    }
+    
+    public String getDeviceName() {
+        return deviceName;
+    }
+    
+    public String getPlatformVersion() {
+        return platformVersion;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DeviceEndpoint)) return false;
+        DeviceEndpoint that = (DeviceEndpoint) o;
+        return id.equals(that.id);
+    }
+    
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+    
+    @Override
+    public String toString() {
+        return id + " (" + deviceName + " @ " + serverUrl + ")";
+    }
+}
@@ -0,0 +1,81 @@
+package com.saucelab.driver;
+
+import com.saucelab.config.ConfigLoader;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * One Appium session together with its explicit wait and the device endpoint it holds.
+ * Page objects take a context in their constructor, so a session can be driven from any
+ * thread - a pool worker, a CompletableFuture stage or a virtual thread - as long as only
+ * one thread uses it at a time. Open with {@link DriverManager#openContext()} and close with
+ * {@link DriverManager#closeContext(DriverContext)}; {@link DriverManager#bindContext(DriverContext)}
+ * attaches it to the current thread for code that still uses the static getters.
+ */
+public final class DriverContext {
+    
+    private final AndroidDriver driver;
+    private final WebDriverWait wait;
+    private final DeviceEndpoint endpoint;
+    private final Map<Class<?>, Object> attachments = new ConcurrentHashMap<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    
+    public DriverContext(AndroidDriver driver, DeviceEndpoint endpoint) {
+        this.driver = driver;
+        this.wait = new WebDriverWait(driver, Duration.ofSeconds(ConfigLoader.getExplicitWait()));
+        this.endpoint = endpoint;
+    }
+    
+    public AndroidDriver getDriver() {
+        return driver;
+    }
+    
+    public WebDriverWait getWait() {
+        return wait;
+    }
+    
+    /**
+     * Gets the device endpoint leased for this session, or null for a session opened outside the pool.
+     */
+    public DeviceEndpoint getEndpoint() {
+        return endpoint;
+    }
+    
+    /**
+     * Whether the session was closed, by its owner or by the {@link SessionWatchdog}.
+     */
+    public boolean isClosed() {
+        return closed.get();
+    }
+    
+    /**
+     * Marks the context closed.
+     * @return true for the first caller only, who then ends the session
+     */
+    boolean markClosed() {
+        return closed.compareAndSet(false, true);
+    }
+    
+    /**
+     * Gets per-session state shared by the page objects on this context (e.g. the expected cart),
+     * creating it on first use. Lives as long as the context, so a reused and reset session
+     * starts with fresh state.
+     * @param type The state's class, used as its key
+     * @param factory Creates the state if this context has none yet
+     * @return The state for this context
+     */
+    public <T> T attachment(Class<T> type, Supplier<T> factory) {
+        return type.cast(attachments.computeIfAbsent(type, k -> factory.get()));
+    }
+    
+    @Override
+    public String toString() {
+        return "DriverContext[" + (endpoint != null ? endpoint.getId() : "unpooled") + "]";
+    }
+}
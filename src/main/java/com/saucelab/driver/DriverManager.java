@@ -3,21 +3,40 @@ package com.saucelab.driver;
 import com.saucelab.config.ConfigLoader;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.android.options.UiAutomator2Options;
+import org.openqa.selenium.SessionNotCreatedException;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Driver Manager for handling Appium Android driver lifecycle.
- * Implements singleton pattern with ThreadLocal for parallel execution support.
+ * Each session is a {@link DriverContext}; the static getters use the context bound to the
+ * current thread with a ThreadLocal, while {@link #openContext()} gives an unbound context that
+ * page objects can drive from any thread. Each session leases a device endpoint from the {@link SessionPool} and returns it on quit.
+ * With session.reuse=true the session outlives the test class and is reset with app commands
+ * instead of being recreated.
  */
 public class DriverManager {
     
-    private static ThreadLocal<AndroidDriver> driverThreadLocal = new ThreadLocal<>();
-    private static ThreadLocal<WebDriverWait> waitThreadLocal = new ThreadLocal<>();
+    private static final Logger log = LoggerFactory.getLogger(DriverManager.class);
+    
+    private static ThreadLocal<DriverContext> contextThreadLocal = new ThreadLocal<>();
+    private static AppInstallCache installCache;
     
     private DriverManager() {
         // Private constructor to prevent instantiation
@@ -25,73 +44,327 @@ public class DriverManager {
     
     /**
      * Initializes the AndroidDriver with configurations from config.properties.
-     * Uses setApp capability to install and launch the APK from the specified path.
+     * Uses setApp capability to install and launch the APK from the specified path; when the
+     * same APK build is already installed on the device, starts it by package/activity instead.
+     * The device and server are taken from the endpoint leased from the session pool.
+     * The session is bound to the current thread; see {@link #openContext()} for an unbound one.
      */
     public static void initDriver() {
-        if (driverThreadLocal.get() == null) {
-            System.out.println("[DRIVER] Initializing Android Driver...");
-            
-            UiAutomator2Options options = new UiAutomator2Options();
-            options.setDeviceName(ConfigLoader.getDeviceName());
-            options.setPlatformName(ConfigLoader.getPlatformName());
-            options.setPlatformVersion(ConfigLoader.getPlatformVersion());
-            options.setAutomationName(ConfigLoader.getAutomationName());
-            
-            // Use setApp capability to install APK from file path
-            String appPath = ConfigLoader.getAbsoluteAppPath();
-            if (appPath != null && !appPath.isEmpty()) {
-                File apkFile = new File(appPath);
-                if (apkFile.exists()) {
-                    System.out.println("[DRIVER] Using APK file: " + appPath);
-                    options.setApp(appPath);
-                } else {
-                    System.err.println("[DRIVER] APK file not found: " + appPath);
-                    throw new RuntimeException("APK file not found: " + appPath);
+        DriverContext bound = contextThreadLocal.get();
+        if (bound != null && bound.isClosed()) {
+            // Reaped by the watchdog after it went idle - start over
+            log.info("Replacing closed session {} bound to this thread", bound);
+            bound = null;
+        }
+        if (bound == null) {
+            contextThreadLocal.set(openContext());
+        }
+    }
+    
+    /**
+     * Leases an endpoint and opens a session on it without binding it to any thread.
+     * If the session cannot be created the failure counts against the endpoint's circuit
+     * breaker and another endpoint is tried, up to once per endpoint in the pool.
+     * @return The new context; close it with {@link #closeContext(DriverContext)}
+     */
+    public static DriverContext openContext() {
+        return openContext(SessionPool.getInstance());
+    }
+    
+    /**
+     * Opens a session on an endpoint leased from the given pool, failing over like {@link #openContext()}.
+     */
+    static DriverContext openContext(SessionPool pool) {
+        // A failed endpoint is released and the next lease tries another healthy one
+        for (int attempt = 1; ; attempt++) {
+            DeviceEndpoint endpoint = pool.acquire();
+            EndpointHealth health = pool.getHealth(endpoint);
+            try {
+                DriverContext context = new DriverContext(reuseOrCreateDriver(pool, endpoint), endpoint);
+                health.recordSuccess();
+                SessionWatchdog.register(context);
+                return context;
+            } catch (RuntimeException e) {
+                pool.release(endpoint);
+                if (!EndpointHealth.isEndpointFailure(e)) {
+                    throw e;
                 }
-            } else {
-                // Fallback to app package/activity if no APK path specified
-                System.out.println("[DRIVER] No APK path specified, using app package/activity");
+                health.recordFailure(e);
+                if (attempt >= pool.size()) {
+                    throw e;
+                }
+                log.warn("Session creation on {} failed, trying another endpoint: {}", endpoint.getId(), e.getMessage());
+            } finally {
+                // No-op once the outcome was recorded; otherwise a half-open probe would never end
+                health.releaseProbe();
+            }
+        }
+    }
+    
+    /**
+     * Uses the endpoint's pre-warmed session if there is one, then the session parked on it
+     * when its app reset succeeds, otherwise creates a fresh session.
+     */
+    private static AndroidDriver reuseOrCreateDriver(SessionPool pool, DeviceEndpoint endpoint) {
+        AndroidDriver warm = pool.takeWarm(endpoint);
+        if (warm != null) {
+            log.info("Using pre-warmed session on {}", endpoint.getId());
+            return warm;
+        }
+        AndroidDriver parked = pool.takeParked(endpoint);
+        if (parked != null) {
+            log.info("Reusing session on {}", endpoint.getId());
+            if (AppReset.reset(parked, ConfigLoader.getAppPackage())) {
+                return parked;
+            }
+            quietQuit(parked);
+        }
+        return createDriver(pool, endpoint);
+    }
+    
+    /**
+     * Opens sessions on up to {@code count} free endpoints concurrently and leaves them in the
+     * pool for the first workers that lease those endpoints, so session start-ups overlap
+     * instead of adding up. Failures count against the endpoint's circuit breaker and are
+     * reported; the worker then creates its session lazily as before. The endpoints are only
+     * released once every start-up has finished, even if the caller is interrupted meanwhile.
+     * @param count Sessions to open; capped at the pool size
+     * @return Start-up result per endpoint, in completion order
+     */
+    public static List<PrewarmResult> prewarmSessions(int count) {
+        SessionPool pool = SessionPool.getInstance();
+        List<DeviceEndpoint> leased = new ArrayList<>();
+        for (int i = 0; i < Math.min(count, pool.size()); i++) {
+            leased.add(pool.acquire());
+        }
+        List<PrewarmResult> results = new ArrayList<>();
+        if (leased.isEmpty()) {
+            return results;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(leased.size(), r -> {
+            Thread t = new Thread(r, "session-prewarm");
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        CompletionService<PrewarmResult> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<PrewarmResult>, DeviceEndpoint> tasks = new HashMap<>();
+        for (DeviceEndpoint endpoint : leased) {
+            tasks.put(completion.submit(() -> prewarm(pool, endpoint)), endpoint);
+        }
+        executor.shutdown();
+        boolean interrupted = false;
+        while (results.size() < tasks.size()) {
+            Future<PrewarmResult> done;
+            try {
+                done = completion.take();
+            } catch (InterruptedException e) {
+                // Keep waiting: a worker may still be creating a session on its endpoint
+                interrupted = true;
+                continue;
+            }
+            try {
+                results.add(done.get());
+            } catch (ExecutionException | InterruptedException e) {
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                log.warn("Session pre-warm failed: {}", cause.getMessage());
+                results.add(new PrewarmResult(tasks.get(done).getId(),
+                    (System.nanoTime() - start) / 1_000_000, String.valueOf(cause.getMessage())));
+            }
+        }
+        for (DeviceEndpoint endpoint : leased) {
+            pool.release(endpoint);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        long wallMillis = (System.nanoTime() - start) / 1_000_000;
+        long summedMillis = results.stream().mapToLong(PrewarmResult::getStartupMillis).sum();
+        results.forEach(result -> log.info("Pre-warm {}", result));
+        log.info("Pre-warmed {} of {} session(s) in {} ms (serial start-up would take {} ms)",
+            results.stream().filter(PrewarmResult::isReady).count(), leased.size(), wallMillis, summedMillis);
+        return results;
+    }
+    
+    private static PrewarmResult prewarm(SessionPool pool, DeviceEndpoint endpoint) {
+        long start = System.nanoTime();
+        EndpointHealth health = pool.getHealth(endpoint);
+        try {
+            AndroidDriver driver = createDriver(pool, endpoint);
+            health.recordSuccess();
+            SessionWatchdog.registerKept(endpoint, driver, SessionWatchdog.State.WARM);
+            pool.offerWarm(endpoint, driver);
+            return new PrewarmResult(endpoint.getId(), (System.nanoTime() - start) / 1_000_000, null);
+        } catch (RuntimeException e) {
+            if (EndpointHealth.isEndpointFailure(e)) {
+                health.recordFailure(e);
+            }
+            return new PrewarmResult(endpoint.getId(), (System.nanoTime() - start) / 1_000_000, e.getMessage());
+        } finally {
+            health.releaseProbe();
+        }
+    }
+    
+    /**
+     * Start-up outcome of one pre-warmed session.
+     */
+    public static final class PrewarmResult {
+        
+        private final String endpointId;
+        private final long startupMillis;
+        private final String error;
+        
+        PrewarmResult(String endpointId, long startupMillis, String error) {
+            this.endpointId = endpointId;
+            this.startupMillis = startupMillis;
+            this.error = error;
+        }
+        
+        public String getEndpointId() {
+            return endpointId;
+        }
+        
+        public long getStartupMillis() {
+            return startupMillis;
+        }
+        
+        public boolean isReady() {
+            return error == null;
+        }
+        
+        @Override
+        public String toString() {
+            return endpointId + ": " + (isReady() ? "ready" : "failed (" + error + ")") + " in " + startupMillis + " ms";
+        }
+    }
+    
+    /**
+     * Creates a new Appium session against the given endpoint.
+     * @param pool The pool the endpoint is leased from, whose circuit breaker sees the commands
+     * @param endpoint The server/device pair to start the session on
+     * @return The new AndroidDriver
+     */
+    static AndroidDriver createDriver(SessionPool pool, DeviceEndpoint endpoint) {
+        log.info("Initializing Android Driver on {}...", endpoint.getId());
+        
+        UiAutomator2Options options = new UiAutomator2Options();
+        options.setDeviceName(endpoint.getDeviceName());
+        options.setPlatformName(ConfigLoader.getPlatformName());
+        options.setPlatformVersion(endpoint.getPlatformVersion());
+        options.setAutomationName(ConfigLoader.getAutomationName());
+        
+        // Use setApp capability to install APK from file path, unless this build is already on the device
+        String appPath = ConfigLoader.getAbsoluteAppPath();
+        String apkDigest = null;
+        boolean installed = false;
+        if (appPath != null && !appPath.isEmpty()) {
+            File apkFile = new File(appPath);
+            if (!apkFile.exists()) {
+                log.error("APK file not found: {}", appPath);
+                throw new RuntimeException("APK file not found: " + appPath);
+            }
+            if (ConfigLoader.isAppInstallCacheEnabled()) {
+                apkDigest = AppInstallCache.digest(appPath);
+                installed = installCache().isInstalled(endpoint, apkDigest);
+            }
+            if (installed) {
+                log.info("APK build already installed on {}, starting app by package", endpoint.getId());
                 options.setAppPackage(ConfigLoader.getAppPackage());
                 options.setAppActivity(ConfigLoader.getAppActivity());
+            } else {
+                log.info("Using APK file: {}", appPath);
+                options.setApp(appPath);
             }
-            
-            // Use wildcard for app wait activity to handle any activity
-            options.setAppWaitActivity("*");
-            
-            // Additional useful options
-            options.setNoReset(false);  // Reset app state before each session
-            options.setFullReset(false); // Don't uninstall app
-            options.setNewCommandTimeout(Duration.ofSeconds(300));
-            options.setAutoGrantPermissions(true); // Auto grant app permissions
-            options.setAppWaitDuration(Duration.ofSeconds(30)); // Wait up to 30s for app to launch
-            
-            try {
-                URL appiumServerUrl = new URL(ConfigLoader.getAppiumServerUrl());
-                System.out.println("[DRIVER] Connecting to Appium server: " + appiumServerUrl);
-                
-                AndroidDriver driver = new AndroidDriver(appiumServerUrl, options);
-                
-                // Set implicit wait
-                driver.manage().timeouts().implicitlyWait(
-                    Duration.ofSeconds(ConfigLoader.getImplicitWait())
-                );
-                
-                driverThreadLocal.set(driver);
-                
-                // Initialize WebDriverWait for explicit waits
-                WebDriverWait wait = new WebDriverWait(driver, 
-                    Duration.ofSeconds(ConfigLoader.getExplicitWait()));
-                waitThreadLocal.set(wait);
-                
-                System.out.println("[DRIVER] Android Driver initialized successfully");
-                System.out.println("[DRIVER] Device: " + ConfigLoader.getDeviceName());
-                System.out.println("[DRIVER] App: " + (appPath != null ? appPath : ConfigLoader.getAppPackage()));
-                
-            } catch (MalformedURLException e) {
-                System.err.println("[DRIVER] Invalid Appium server URL: " + e.getMessage());
-                throw new RuntimeException("Failed to initialize driver", e);
+        } else {
+            // Fallback to app package/activity if no APK path specified
+            log.info("No APK path specified, using app package/activity");
+            options.setAppPackage(ConfigLoader.getAppPackage());
+            options.setAppActivity(ConfigLoader.getAppActivity());
+        }
+        
+        // Use wildcard for app wait activity to handle any activity
+        options.setAppWaitActivity("*");
+        
+        // Additional useful options
+        options.setNoReset(false);  // Reset app state before each session
+        options.setFullReset(false); // Don't uninstall app
+        options.setNewCommandTimeout(Duration.ofSeconds(300));
+        options.setAutoGrantPermissions(true); // Auto grant app permissions
+        options.setAppWaitDuration(Duration.ofSeconds(30)); // Wait up to 30s for app to launch
+        
+        URL appiumServerUrl = endpoint.getServerUrl();
+        log.info("Connecting to Appium server: {}", appiumServerUrl);
+        
+        EndpointHealth health = ConfigLoader.getCircuitFailureThreshold() > 0
+            ? pool.getHealth(endpoint)
+            : null;
+        AndroidDriver driver;
+        try {
+            driver = newDriver(appiumServerUrl, options, health);
+        } catch (SessionNotCreatedException e) {
+            if (!installed) {
+                throw e;
             }
+            // The app was removed or replaced behind our back; install it again
+            log.warn("Starting cached install on {} failed, installing APK: {}", endpoint.getId(), e.getRawMessage());
+            installCache().forget(endpoint);
+            installed = false;
+            options.setApp(appPath);
+            driver = newDriver(appiumServerUrl, options, health);
+        }
+        if (apkDigest != null && !installed) {
+            installCache().markInstalled(endpoint, apkDigest);
+        }
+        
+        // Set implicit wait
+        driver.manage().timeouts().implicitlyWait(
+            Duration.ofSeconds(ConfigLoader.getImplicitWait())
+        );
+        
+        log.info("Android Driver initialized successfully");
+        log.info("Device: {}", endpoint.getDeviceName());
+        log.info("App: {}", appPath != null ? appPath : ConfigLoader.getAppPackage());
+        return driver;
+    }
+    
+    private static AndroidDriver newDriver(URL appiumServerUrl, UiAutomator2Options options, EndpointHealth health) {
+        return ConfigLoader.isCommandMetricsEnabled() || health != null
+            ? new InstrumentedAndroidDriver(appiumServerUrl, options, health)
+            : new AndroidDriver(appiumServerUrl, options);
+    }
+    
+    private static synchronized AppInstallCache installCache() {
+        if (installCache == null) {
+            installCache = new AppInstallCache(Paths.get(ConfigLoader.getAppInstallStateFile()));
+        }
+        return installCache;
+    }
+    
+    /**
+     * Gets the driver context bound to the current thread.
+     * @return DriverContext instance
+     */
+    public static DriverContext getContext() {
+        DriverContext context = contextThreadLocal.get();
+        if (context == null) {
+            throw new IllegalStateException("Driver not initialized. Call initDriver() first.");
+        }
+        return context;
+    }
+    
+    /**
+     * Binds a context to the current thread, e.g. at the start of an executor task.
+     * @param context The context to bind, or null to unbind
+     * @return The context previously bound to this thread, to restore afterwards
+     */
+    public static DriverContext bindContext(DriverContext context) {
+        DriverContext previous = contextThreadLocal.get();
+        if (context == null) {
+            contextThreadLocal.remove();
+        } else {
+            contextThreadLocal.set(context);
         }
+        return previous;
     }
     
     /**
@@ -99,10 +372,7 @@ public class DriverManager {
      * @return AndroidDriver instance
      */
     public static AndroidDriver getDriver() {
-        if (driverThreadLocal.get() == null) {
-            throw new IllegalStateException("Driver not initialized. Call initDriver() first.");
-        }
-        return driverThreadLocal.get();
+        return getContext().getDriver();
     }
     
     /**
@@ -110,10 +380,7 @@ public class DriverManager {
      * @return WebDriverWait instance
      */
     public static WebDriverWait getWait() {
-        if (waitThreadLocal.get() == null) {
-            throw new IllegalStateException("Wait not initialized. Call initDriver() first.");
-        }
-        return waitThreadLocal.get();
+        return getContext().getWait();
     }
     
     /**
@@ -121,25 +388,108 @@ public class DriverManager {
      * @return true if driver is initialized
      */
     public static boolean isDriverInitialized() {
-        return driverThreadLocal.get() != null;
+        return contextThreadLocal.get() != null;
+    }
+    
+    /**
+     * Gets the device endpoint leased by the current thread.
+     * @return DeviceEndpoint, or null if no driver is initialized on this thread
+     */
+    public static DeviceEndpoint getEndpoint() {
+        DriverContext context = contextThreadLocal.get();
+        return context != null ? context.getEndpoint() : null;
     }
     
     /**
-     * Quits the driver and cleans up resources.
+     * Quits the driver, cleans up resources and returns the device endpoint to the pool.
+     * In session reuse mode the session is parked on its endpoint instead of being quit.
      */
     public static void quitDriver() {
-        AndroidDriver driver = driverThreadLocal.get();
-        if (driver != null) {
+        DriverContext context = contextThreadLocal.get();
+        if (context != null) {
             try {
-                System.out.println("[DRIVER] Quitting Android Driver...");
-                driver.quit();
-                System.out.println("[DRIVER] Android Driver quit successfully");
-            } catch (Exception e) {
-                System.err.println("[DRIVER] Error quitting driver: " + e.getMessage());
+                closeContext(context);
             } finally {
-                driverThreadLocal.remove();
-                waitThreadLocal.remove();
+                contextThreadLocal.remove();
             }
         }
     }
+    
+    /**
+     * Ends a context's session and returns its endpoint to the pool.
+     * In session reuse mode the session is parked on its endpoint instead of being quit.
+     * @param context A context from {@link #openContext()}
+     */
+    public static void closeContext(DriverContext context) {
+        if (!context.markClosed()) {
+            log.debug("Session {} already closed", context);
+            return;
+        }
+        DeviceEndpoint endpoint = context.getEndpoint();
+        try {
+            if (ConfigLoader.isSessionReuse() && endpoint != null) {
+                log.info("Keeping session for reuse on {}", endpoint.getId());
+                SessionWatchdog.registerKept(endpoint, context.getDriver(), SessionWatchdog.State.PARKED);
+                SessionPool.getInstance().park(endpoint, context.getDriver());
+            } else {
+                SessionWatchdog.unregister(context);
+                quietQuit(context.getDriver());
+            }
+        } finally {
+            SessionPool.getInstance().release(endpoint);
+        }
+    }
+    
+    /**
+     * Ends the current thread's ownership of its bound context, e.g. when a test class finishes.
+     * A context still open here was not closed by its owner: with the session watchdog enabled
+     * it is unbound and closed as orphaned, so the pooled thread does not carry it into the next
+     * test class. Without the watchdog the context stays bound for the next {@link #initDriver()}.
+     * @param owner Who owned the context, for the leak report (e.g. the test class)
+     */
+    public static void endOwnership(String owner) {
+        if (!ConfigLoader.isSessionWatchdogEnabled()) {
+            return;
+        }
+        DriverContext context = contextThreadLocal.get();
+        contextThreadLocal.remove();
+        if (context != null && !context.isClosed()) {
+            SessionWatchdog.orphaned(context, owner);
+        }
+    }
+    
+    /**
+     * Quits a context's session without parking it and returns its endpoint to the pool.
+     * Used by the {@link SessionWatchdog} for sessions nobody will close.
+     */
+    static void discardContext(DriverContext context) {
+        if (!context.markClosed()) {
+            return;
+        }
+        try {
+            quietQuit(context.getDriver());
+        } finally {
+            SessionPool.getInstance().release(context.getEndpoint());
+        }
+    }
+    
+    /**
+     * Quits every session kept alive by session reuse mode. Call once at suite end.
+     */
+    public static void quitAllSessions() {
+        for (AndroidDriver driver : SessionPool.getInstance().drainParked()) {
+            quietQuit(driver);
+        }
+    }
+    
+    static void quietQuit(AndroidDriver driver) {
+        SessionWatchdog.unregister(driver);
+        try {
+            log.info("Quitting Android Driver...");
+            driver.quit();
+            log.info("Android Driver quit successfully");
+        } catch (Exception e) {
+            log.warn("Error quitting driver: {}", e.getMessage());
+        }
+    }
 }
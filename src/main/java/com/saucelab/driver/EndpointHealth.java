@@ -0,0 +1,159 @@
+package com.saucelab.driver;
+
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Circuit breaker for one device endpoint.
+ * <ul>
+ *   <li>CLOSED: work is dispatched normally; consecutive failures are counted.</li>
+ *   <li>OPEN: after {@code failureThreshold} consecutive failures no work is dispatched
+ *       until the cool-down has passed.</li>
+ *   <li>HALF_OPEN: after the cool-down one lease is let through as a probe; success closes
+ *       the circuit, failure opens it for another cool-down. A probe that ends without either
+ *       (e.g. a missing element) is inconclusive and also opens it for another cool-down.</li>
+ * </ul>
+ * Failures are session-creation errors, lost sessions and connection errors; errors a command
+ * can cause on a healthy device (missing or stale elements, "unknown error" from the app) do not count.
+ */
+public class EndpointHealth {
+    
+    private static final Logger log = LoggerFactory.getLogger(EndpointHealth.class);
+    
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+    
+    private final String endpointId;
+    private final int failureThreshold;
+    private final long coolDownNanos;
+    
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long totalFailures;
+    private int timesOpened;
+    private long openedAtNanos;
+    private String lastFailure;
+    
+    /**
+     * @param endpointId The endpoint this breaker guards, for logs and reports
+     * @param failureThreshold Consecutive failures that open the circuit; 0 or less never opens it
+     * @param coolDown How long an open circuit refuses work before a probe is allowed
+     */
+    public EndpointHealth(String endpointId, int failureThreshold, Duration coolDown) {
+        this.endpointId = endpointId;
+        this.failureThreshold = failureThreshold;
+        this.coolDownNanos = coolDown.toNanos();
+    }
+    
+    /**
+     * Whether a failure means the endpoint itself is unhealthy rather than the test being wrong.
+     */
+    public static boolean isEndpointFailure(Throwable error) {
+        if (error instanceof NoSuchSessionException
+                || error instanceof SessionNotCreatedException
+                || error instanceof UnreachableBrowserException) {
+            return true;
+        }
+        // Connection refused, reset or timed out on the way to the server
+        return error.getCause() instanceof IOException;
+    }
+    
+    /**
+     * Asks to dispatch work to the endpoint. An open circuit whose cool-down has passed
+     * moves to half-open; the pool leases an endpoint to one worker at a time, so the
+     * half-open lease is the single probe.
+     * @return true if the caller may use the endpoint
+     */
+    public synchronized boolean tryDispatch() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= coolDownNanos) {
+            state = State.HALF_OPEN;
+            log.info("Circuit for {} is half-open, probing", endpointId);
+        }
+        return state != State.OPEN;
+    }
+    
+    /**
+     * Gets how long until an open circuit allows a probe.
+     * @return Remaining cool-down, or zero if the circuit is not open
+     */
+    public synchronized Duration untilProbe() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(Math.max(0, coolDownNanos - (System.nanoTime() - openedAtNanos)));
+    }
+    
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            log.info("Circuit for {} closed", endpointId);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+    
+    public synchronized void recordFailure(Throwable error) {
+        consecutiveFailures++;
+        totalFailures++;
+        lastFailure = error.getClass().getSimpleName() + ": " + firstLine(error.getMessage());
+        if (state == State.HALF_OPEN || (failureThreshold > 0 && consecutiveFailures >= failureThreshold && state == State.CLOSED)) {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+            timesOpened++;
+            log.warn("Circuit for {} opened after {} consecutive failure(s): {}", endpointId, consecutiveFailures, lastFailure);
+        }
+    }
+    
+    /**
+     * Ends a half-open probe that neither succeeded nor failed on the endpoint's account, so the
+     * circuit waits another cool-down for the next probe instead of staying half-open. Does
+     * nothing in any other state, so callers can call it on every exit path.
+     */
+    public synchronized void releaseProbe() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+            log.info("Probe of {} was inconclusive, circuit open again", endpointId);
+        }
+    }
+    
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "";
+        }
+        int newline = message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+    
+    /**
+     * Gets the current state; an open circuit past its cool-down still reports OPEN until probed.
+     */
+    public synchronized State getState() {
+        return state;
+    }
+    
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+    
+    public synchronized long getTotalFailures() {
+        return totalFailures;
+    }
+    
+    public synchronized int getTimesOpened() {
+        return timesOpened;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return endpointId + " " + state + " (consecutive failures: " + consecutiveFailures
+            + ", total: " + totalFailures + ", opened: " + timesOpened + "x"
+            + (lastFailure != null ? ", last: " + lastFailure : "") + ")";
+    }
+}
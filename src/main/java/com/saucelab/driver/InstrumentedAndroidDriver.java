@@ -0,0 +1,76 @@
+package com.saucelab.driver;
+
+import com.saucelab.config.ConfigLoader;
+import com.saucelab.metrics.CommandMetrics;
+import com.saucelab.metrics.LocatorMetrics;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.remote.CommandPayload;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * AndroidDriver that observes every command it sends. Driver and element commands
+ * (RemoteWebElement delegates to its parent driver) all pass through execute(CommandPayload).
+ * Latencies go to {@link CommandMetrics}, attributed to the calling page method and the
+ * active {@link SettingsProfile}; find latencies also go to {@link LocatorMetrics} per
+ * locator, and outcomes go to the endpoint's {@link EndpointHealth} circuit breaker.
+ * Each command also tells the {@link SessionWatchdog} that the session is in use.
+ */
+public class InstrumentedAndroidDriver extends AndroidDriver {
+    
+    private final EndpointHealth health;
+    
+    public InstrumentedAndroidDriver(URL remoteAddress, Capabilities capabilities) {
+        this(remoteAddress, capabilities, null);
+    }
+    
+    /**
+     * @param health Breaker to report command outcomes to, or null
+     */
+    public InstrumentedAndroidDriver(URL remoteAddress, Capabilities capabilities, EndpointHealth health) {
+        super(remoteAddress, capabilities);
+        this.health = health;
+    }
+    
+    @Override
+    protected Response execute(CommandPayload payload) {
+        long start = System.nanoTime();
+        SessionWatchdog.touch(this);
+        try {
+            Response response = super.execute(payload);
+            if (health != null) {
+                health.recordSuccess();
+            }
+            return response;
+        } catch (RuntimeException e) {
+            // health is still null while the constructor creates the session; DriverManager records that outcome
+            if (health != null) {
+                if (EndpointHealth.isEndpointFailure(e)) {
+                    health.recordFailure(e);
+                } else {
+                    health.recordSuccess();
+                }
+            }
+            throw e;
+        } finally {
+            if (ConfigLoader.isCommandMetricsEnabled()) {
+                long micros = (System.nanoTime() - start) / 1_000;
+                CommandMetrics.record(payload.getName(), SessionSettings.activeProfile(this), micros);
+                if (isFind(payload.getName())) {
+                    Map<String, ?> parameters = payload.getParameters();
+                    LocatorMetrics.record(String.valueOf(parameters.get("using")),
+                        String.valueOf(parameters.get("value")), micros);
+                }
+            }
+        }
+    }
+    
+    private static boolean isFind(String command) {
+        return DriverCommand.FIND_ELEMENT.equals(command) || DriverCommand.FIND_ELEMENTS.equals(command)
+            || DriverCommand.FIND_CHILD_ELEMENT.equals(command) || DriverCommand.FIND_CHILD_ELEMENTS.equals(command);
+    }
+}
@@ -0,0 +1,169 @@
+package com.saucelab.driver;
+
+import com.saucelab.config.ConfigLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs independent device scenarios concurrently, each on its own session from the pool.
+ * Every scenario gets an explicit {@link DriverContext} (also bound to its thread for code that
+ * uses the static DriverManager getters), so scenarios do not depend on which thread runs them.
+ * <p>
+ * With scenario.threads=virtual each scenario runs on a virtual thread (Java 21+, see the
+ * java21 Maven profile), so one JVM can drive many devices without a platform thread per
+ * device; otherwise a fixed pool with one platform thread per device endpoint is used.
+ * Concurrency is bounded by the device leases either way.
+ */
+public class ScenarioRunner {
+    
+    private static final Logger log = LoggerFactory.getLogger(ScenarioRunner.class);
+    
+    /**
+     * A unit of device work driven through an explicit context.
+     */
+    @FunctionalInterface
+    public interface Scenario {
+        void run(DriverContext context) throws Exception;
+    }
+    
+    private final boolean virtualThreads;
+    
+    public ScenarioRunner(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+    
+    /**
+     * Creates a runner using the thread mode from scenario.threads ("platform" or "virtual").
+     */
+    public static ScenarioRunner fromConfig() {
+        return new ScenarioRunner("virtual".equalsIgnoreCase(ConfigLoader.getScenarioThreads()));
+    }
+    
+    /**
+     * Runs all scenarios and waits for them to finish.
+     * @param scenarios Scenarios by name
+     * @return One result per scenario, in the given order
+     */
+    public List<ScenarioResult> runAll(Map<String, Scenario> scenarios) {
+        long start = System.nanoTime();
+        Map<String, Future<ScenarioResult>> futures = new LinkedHashMap<>();
+        ExecutorService executor = newExecutor();
+        try {
+            scenarios.forEach((name, scenario) -> futures.put(name, executor.submit(() -> runOne(name, scenario))));
+        } finally {
+            executor.shutdown();
+        }
+        List<ScenarioResult> results = new ArrayList<>();
+        for (Map.Entry<String, Future<ScenarioResult>> future : futures.entrySet()) {
+            try {
+                results.add(future.getValue().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+                throw new IllegalStateException("Interrupted while waiting for scenarios", e);
+            } catch (ExecutionException e) {
+                results.add(new ScenarioResult(future.getKey(), null, 0, e.getCause()));
+            }
+        }
+        log.info("Ran {} scenario(s) on {} threads in {} ms", results.size(),
+            virtualThreads ? "virtual" : "platform", (System.nanoTime() - start) / 1_000_000);
+        return results;
+    }
+    
+    private static ScenarioResult runOne(String name, Scenario scenario) {
+        long start = System.nanoTime();
+        DriverContext context;
+        try {
+            context = DriverManager.openContext();
+        } catch (RuntimeException e) {
+            return new ScenarioResult(name, null, (System.nanoTime() - start) / 1_000_000, e);
+        }
+        DriverContext previous = DriverManager.bindContext(context);
+        Throwable failure = null;
+        try {
+            scenario.run(context);
+        } catch (Exception | AssertionError e) {
+            failure = e;
+        } finally {
+            DriverManager.bindContext(previous);
+            DriverManager.closeContext(context);
+        }
+        ScenarioResult result = new ScenarioResult(name, context.getEndpoint().getId(),
+            (System.nanoTime() - start) / 1_000_000, failure);
+        log.info("Scenario {}", result);
+        return result;
+    }
+    
+    private ExecutorService newExecutor() {
+        if (!virtualThreads) {
+            return Executors.newFixedThreadPool(SessionPool.getInstance().size(), r -> {
+                Thread t = new Thread(r, "scenario-worker");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        try {
+            // Looked up reflectively so the default build can keep targeting Java 11
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("scenario.threads=virtual needs Java 21 or later, running on "
+                + System.getProperty("java.version"), e);
+        }
+    }
+    
+    /**
+     * Outcome of one scenario.
+     */
+    public static final class ScenarioResult {
+        
+        private final String name;
+        private final String endpointId;
+        private final long millis;
+        private final Throwable failure;
+        
+        ScenarioResult(String name, String endpointId, long millis, Throwable failure) {
+            this.name = name;
+            this.endpointId = endpointId;
+            this.millis = millis;
+            this.failure = failure;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Gets the endpoint the scenario ran on, or null if no session could be opened.
+         */
+        public String getEndpointId() {
+            return endpointId;
+        }
+        
+        public long getMillis() {
+            return millis;
+        }
+        
+        public Throwable getFailure() {
+            return failure;
+        }
+        
+        public boolean isPassed() {
+            return failure == null;
+        }
+        
+        @Override
+        public String toString() {
+            return name + " on " + endpointId + ": " + (isPassed() ? "passed" : "failed (" + failure + ")")
+                + " in " + millis + " ms";
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.saucelab.driver;
+
+import com.saucelab.config.ConfigLoader;
+import com.saucelab.config.DeviceProfile;
+import io.appium.java_client.android.AndroidDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool of device endpoints shared by all test worker threads.
+ * Each worker leases one endpoint for the lifetime of its session and returns it
+ * when the session is quit, so parallel suites scale with the number of devices.
+ * In session reuse mode the pool also keeps the idle session of each endpoint.
+ * Each endpoint has an {@link EndpointHealth} circuit breaker; endpoints with an open
+ * circuit are skipped when leasing until their cool-down has passed.
+ */
+public class SessionPool {
+    
+    private static final Logger log = LoggerFactory.getLogger(SessionPool.class);
+    
+    private static volatile SessionPool instance;
+    
+    private final List<DeviceEndpoint> endpoints;
+    private final BlockingQueue<DeviceEndpoint> available;
+    private final Duration acquireTimeout;
+    private final Map<DeviceEndpoint, AndroidDriver> parkedSessions = new ConcurrentHashMap<>();
+    private final Map<DeviceEndpoint, AndroidDriver> warmSessions = new ConcurrentHashMap<>();
+    private final Map<DeviceEndpoint, EndpointHealth> health = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition endpointFreed = lock.newCondition();
+    
+    public SessionPool(List<DeviceEndpoint> endpoints, Duration acquireTimeout) {
+        this(endpoints, acquireTimeout, ConfigLoader.getCircuitFailureThreshold(),
+            Duration.ofSeconds(ConfigLoader.getCircuitCoolDown()));
+    }
+    
+    /**
+     * @param endpoints The device endpoints to lease
+     * @param acquireTimeout How long {@link #acquire()} waits for a free, healthy endpoint
+     * @param failureThreshold Consecutive failures that open an endpoint's circuit
+     * @param coolDown How long an open circuit refuses leases before a probe
+     */
+    public SessionPool(List<DeviceEndpoint> endpoints, Duration acquireTimeout, int failureThreshold, Duration coolDown) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("Session pool needs at least one device endpoint");
+        }
+        this.endpoints = Collections.unmodifiableList(new ArrayList<>(endpoints));
+        this.available = new LinkedBlockingQueue<>(endpoints);
+        this.acquireTimeout = acquireTimeout;
+        for (DeviceEndpoint endpoint : endpoints) {
+            health.put(endpoint, new EndpointHealth(endpoint.getId(), failureThreshold, coolDown));
+        }
+    }
+    
+    /**
+     * Gets the shared pool, building it from config.properties on first use.
+     * @return SessionPool instance
+     */
+    public static SessionPool getInstance() {
+        if (instance == null) {
+            synchronized (SessionPool.class) {
+                if (instance == null) {
+                    instance = fromConfig();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    /**
+     * Replaces the shared pool, e.g. to point the suite at local stand-in servers.
+     * @param pool The pool to use from now on
+     */
+    public static void setInstance(SessionPool pool) {
+        instance = pool;
+    }
+    
+    /**
+     * Builds a pool with one endpoint per row of the configured device matrix.
+     * Each worker claims a row by leasing its endpoint.
+     */
+    public static SessionPool fromConfig() {
+        List<DeviceEndpoint> endpoints = new ArrayList<>();
+        for (DeviceProfile row : ConfigLoader.getDeviceMatrix()) {
+            endpoints.add(new DeviceEndpoint(
+                "device-" + row.getIndex(),
+                row.getServerUrl(),
+                row.getDeviceName(),
+                row.getPlatformVersion()));
+        }
+        log.info("Configured {} device endpoint(s)", endpoints.size());
+        return new SessionPool(endpoints, Duration.ofSeconds(ConfigLoader.getPoolAcquireTimeout()));
+    }
+    
+    /**
+     * Leases a free endpoint whose circuit allows work, blocking until one is returned,
+     * a cool-down ends or the acquire timeout expires.
+     * @return The leased endpoint
+     */
+    public DeviceEndpoint acquire() {
+        long deadline = System.nanoTime() + acquireTimeout.toNanos();
+        // A lock rather than a monitor, so virtual threads waiting here do not pin their carrier
+        lock.lock();
+        try {
+            while (true) {
+                DeviceEndpoint endpoint = takeDispatchable();
+                if (endpoint != null) {
+                    log.info("{} leased {}", Thread.currentThread().getName(), endpoint);
+                    return endpoint;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("No healthy device endpoint became free within "
+                        + acquireTimeout.getSeconds() + "s: " + health.values());
+                }
+                try {
+                    long wait = Math.min(remaining, nextProbeNanos());
+                    endpointFreed.awaitNanos(Math.max(wait, TimeUnit.MILLISECONDS.toNanos(1)));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a device endpoint", e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Removes the first free endpoint whose circuit grants dispatch. Caller holds the lock.
+     */
+    private DeviceEndpoint takeDispatchable() {
+        for (DeviceEndpoint endpoint : available) {
+            if (health.get(endpoint).tryDispatch()) {
+                available.remove(endpoint);
+                return endpoint;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Time until the first open circuit among the free endpoints allows a probe.
+     */
+    private long nextProbeNanos() {
+        long next = Long.MAX_VALUE;
+        for (DeviceEndpoint endpoint : available) {
+            Duration untilProbe = health.get(endpoint).untilProbe();
+            if (!untilProbe.isZero()) {
+                next = Math.min(next, untilProbe.toNanos());
+            }
+        }
+        return next;
+    }
+    
+    /**
+     * Returns a leased endpoint to the pool.
+     * @param endpoint The endpoint to return
+     */
+    public void release(DeviceEndpoint endpoint) {
+        if (endpoint != null && endpoints.contains(endpoint)) {
+            lock.lock();
+            try {
+                if (!available.contains(endpoint)) {
+                    available.offer(endpoint);
+                    endpointFreed.signalAll();
+                    log.info("{} returned {}", Thread.currentThread().getName(), endpoint);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * Keeps an idle session on its endpoint so the next lease can reuse it.
+     * @param endpoint The endpoint the session runs on
+     * @param driver The idle session
+     */
+    public void park(DeviceEndpoint endpoint, AndroidDriver driver) {
+        parkedSessions.put(endpoint, driver);
+    }
+    
+    /**
+     * Takes the idle session parked on an endpoint, if any.
+     * @param endpoint The leased endpoint
+     * @return The parked session, or null if a new one must be created
+     */
+    public AndroidDriver takeParked(DeviceEndpoint endpoint) {
+        return parkedSessions.remove(endpoint);
+    }
+    
+    /**
+     * Keeps a freshly created session on its endpoint until a worker leases it.
+     * Unlike parked sessions it needs no app reset before use.
+     * @param endpoint The endpoint the session runs on
+     * @param driver The new session
+     */
+    public void offerWarm(DeviceEndpoint endpoint, AndroidDriver driver) {
+        warmSessions.put(endpoint, driver);
+    }
+    
+    /**
+     * Takes the pre-warmed session of an endpoint, if any.
+     * @param endpoint The leased endpoint
+     * @return The ready session, or null
+     */
+    public AndroidDriver takeWarm(DeviceEndpoint endpoint) {
+        return warmSessions.remove(endpoint);
+    }
+    
+    /**
+     * Drops a parked or pre-warmed session unless a lease took it in the meantime.
+     * @param endpoint The endpoint the session runs on
+     * @param driver The kept session
+     * @return true if the pool still kept the session; the caller then quits it
+     */
+    public boolean removeKept(DeviceEndpoint endpoint, AndroidDriver driver) {
+        boolean parked = parkedSessions.remove(endpoint, driver);
+        boolean warm = warmSessions.remove(endpoint, driver);
+        return parked || warm;
+    }
+    
+    /**
+     * Removes and returns all parked and unused pre-warmed sessions, e.g. to quit them at suite end.
+     * @return The sessions that were kept
+     */
+    public List<AndroidDriver> drainParked() {
+        List<AndroidDriver> drained = new ArrayList<>();
+        for (DeviceEndpoint endpoint : endpoints) {
+            AndroidDriver driver = parkedSessions.remove(endpoint);
+            if (driver != null) {
+                drained.add(driver);
+            }
+            AndroidDriver warm = warmSessions.remove(endpoint);
+            if (warm != null) {
+                drained.add(warm);
+            }
+        }
+        return drained;
+    }
+    
+    /**
+     * Gets the circuit breaker of an endpoint, e.g. to record failures or report its state.
+     * @param endpoint An endpoint of this pool
+     * @return EndpointHealth instance
+     */
+    public EndpointHealth getHealth(DeviceEndpoint endpoint) {
+        return health.get(endpoint);
+    }
+    
+    /**
+     * Gets the circuit state of every endpoint, in configuration order.
+     * @return One line per endpoint, e.g. "device-0 CLOSED (consecutive failures: 0, ...)"
+     */
+    public List<String> healthReport() {
+        List<String> report = new ArrayList<>();
+        for (EndpointHealth endpointHealth : health.values()) {
+            report.add(endpointHealth.toString());
+        }
+        return report;
+    }
+    
+    public List<DeviceEndpoint> getEndpoints() {
+        return endpoints;
+    }
+    
+    public int size() {
+        return endpoints.size();
+    }
+    
+    public int availableCount() {
+        return available.size();
+    }
+}
@@ -0,0 +1,89 @@
+package com.saucelab.driver;
+
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks which settings profile is active on each session and which settings were sent,
+ * so switching profiles costs one updateSettings call with only the settings that differ,
+ * and nothing at all when the profile is already active.
+ */
+public final class SessionSettings {
+    
+    private static final Logger log = LoggerFactory.getLogger(SessionSettings.class);
+    
+    private static final Map<AndroidDriver, SessionSettings> BY_DRIVER =
+        Collections.synchronizedMap(new WeakHashMap<>());
+    
+    private final Map<String, Object> applied = new HashMap<>();
+    // Not synchronized: a virtual thread blocked in setSettings would pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile String activeProfile;
+    
+    private SessionSettings() {
+    }
+    
+    public static SessionSettings of(AndroidDriver driver) {
+        return BY_DRIVER.computeIfAbsent(driver, d -> new SessionSettings());
+    }
+    
+    /**
+     * Gets the profile last activated on a session.
+     * @return The profile name, or null if none was activated
+     */
+    public static String activeProfile(AndroidDriver driver) {
+        SessionSettings settings = BY_DRIVER.get(driver);
+        return settings != null ? settings.activeProfile : null;
+    }
+    
+    public String getActiveProfile() {
+        return activeProfile;
+    }
+    
+    /**
+     * Makes the profile active, sending only the settings whose value differs from what the
+     * session already has. A server that rejects the settings is logged and the previous
+     * profile stays active, so the next activation tries again.
+     * @param driver The session this tracker belongs to
+     * @param profile The profile to activate
+     */
+    public void activate(AndroidDriver driver, SettingsProfile profile) {
+        if (profile.getName().equals(activeProfile)) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (profile.getName().equals(activeProfile)) {
+                return;
+            }
+            Map<String, Object> diff = new LinkedHashMap<>();
+            profile.getSettings().forEach((key, value) -> {
+                if (!Objects.equals(applied.get(key), value)) {
+                    diff.put(key, value);
+                }
+            });
+            if (!diff.isEmpty()) {
+                long start = System.nanoTime();
+                driver.setSettings(diff);
+                applied.putAll(diff);
+                log.debug("Applied settings profile {} ({}) in {} ms", profile.getName(), diff,
+                    (System.nanoTime() - start) / 1_000_000);
+            }
+            activeProfile = profile.getName();
+        } catch (WebDriverException e) {
+            log.warn("Could not apply settings profile {}: {}", profile.getName(), e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
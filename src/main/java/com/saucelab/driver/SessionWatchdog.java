@@ -0,0 +1,293 @@
+package com.saucelab.driver;
+
+import com.saucelab.config.ConfigLoader;
+import io.appium.java_client.android.AndroidDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of every open session: whether a context is using it or the pool keeps it
+ * (parked for reuse or pre-warmed), when it was created and when it last sent a command.
+ * A session in use belongs to its {@link DriverContext} until the context is closed; when
+ * its owner ends without closing it (e.g. a test class whose tearDown never ran, see
+ * {@link DriverManager#endOwnership(String)}), the session is closed as orphaned. Worker
+ * threads are pooled and outlive their test classes, so thread liveness says nothing here.
+ * A background check every session.watchdog.interval seconds also closes sessions, in use or
+ * kept by the pool, that sent no command for session.idle.timeout seconds (idle). That frees
+ * the device before Appium's newCommandTimeout does, and stops the pool from handing out a
+ * session the server already dropped. Sessions still open at suite end are reported.
+ *
+ * <p>Command times come from {@link InstrumentedAndroidDriver}; a plain AndroidDriver only
+ * counts its creation time, so idle reaping should stay above the longest test class then.
+ */
+public final class SessionWatchdog {
+    
+    private static final Logger log = LoggerFactory.getLogger(SessionWatchdog.class);
+    
+    private static final Map<AndroidDriver, Lease> LEASES = new ConcurrentHashMap<>();
+    private static final List<String> REAPED = new CopyOnWriteArrayList<>();
+    private static ScheduledExecutorService reaper;
+    
+    private SessionWatchdog() {
+        // Utility class
+    }
+    
+    /**
+     * Where a tracked session is.
+     */
+    public enum State {
+        /** Used by an open context */
+        IN_USE,
+        /** Kept by the pool for reuse by the next lease of its endpoint */
+        PARKED,
+        /** Pre-warmed and not leased yet */
+        WARM
+    }
+    
+    /**
+     * Starts tracking a context that was just opened, whether on a new, parked or pre-warmed session.
+     */
+    static void register(DriverContext context) {
+        track(context.getDriver(), context.getEndpoint(), context, State.IN_USE);
+    }
+    
+    /**
+     * Starts tracking a session the pool keeps without a context.
+     * @param state {@link State#PARKED} or {@link State#WARM}
+     */
+    static void registerKept(DeviceEndpoint endpoint, AndroidDriver driver, State state) {
+        track(driver, endpoint, null, state);
+    }
+    
+    private static void track(AndroidDriver driver, DeviceEndpoint endpoint, DriverContext context, State state) {
+        if (!ConfigLoader.isSessionWatchdogEnabled()) {
+            return;
+        }
+        Lease previous = LEASES.get(driver);
+        Instant createdAt = previous != null ? previous.createdAt : Instant.now();
+        LEASES.put(driver, new Lease(driver, endpoint, context, state, Thread.currentThread().getName(), createdAt));
+        startReaper();
+    }
+    
+    /**
+     * Stops tracking a context that was closed normally.
+     */
+    static void unregister(DriverContext context) {
+        LEASES.computeIfPresent(context.getDriver(), (driver, lease) -> lease.context == context ? null : lease);
+    }
+    
+    /**
+     * Stops tracking a session that was quit, e.g. a parked session drained at suite end.
+     */
+    static void unregister(AndroidDriver driver) {
+        LEASES.remove(driver);
+    }
+    
+    /**
+     * Closes a context whose owner ended without closing it.
+     * @param owner Who owned the context, for the report
+     */
+    static void orphaned(DriverContext context, String owner) {
+        Lease lease = LEASES.get(context.getDriver());
+        if (lease != null && lease.context == context) {
+            reap(lease, "orphaned (left open by " + owner + ")");
+        } else {
+            DriverManager.discardContext(context);
+        }
+    }
+    
+    /**
+     * Notes that a session just sent a command.
+     */
+    public static void touch(AndroidDriver driver) {
+        Lease lease = LEASES.get(driver);
+        if (lease != null) {
+            lease.lastCommandNanos = System.nanoTime();
+        }
+    }
+    
+    private static synchronized void startReaper() {
+        if (reaper != null) {
+            return;
+        }
+        long interval = Math.max(1, ConfigLoader.getSessionWatchdogInterval());
+        reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reaper.scheduleWithFixedDelay(() -> {
+            try {
+                reapIdle();
+            } catch (RuntimeException e) {
+                log.warn("Session watchdog check failed: {}", e.getMessage());
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+        log.debug("Session watchdog checking every {} s", interval);
+    }
+    
+    /**
+     * Closes every tracked session, in use or kept by the pool, that has been idle longer
+     * than session.idle.timeout (0 disables idle reaping).
+     * @return How many sessions were closed
+     */
+    public static int reapIdle() {
+        long idleTimeoutSeconds = ConfigLoader.getSessionIdleTimeout();
+        if (idleTimeoutSeconds <= 0) {
+            return 0;
+        }
+        int reaped = 0;
+        for (Lease lease : leases()) {
+            long idleSeconds = lease.getIdle().getSeconds();
+            if (idleSeconds >= idleTimeoutSeconds && reap(lease, "idle for " + idleSeconds + " s")) {
+                reaped++;
+            }
+        }
+        return reaped;
+    }
+    
+    /**
+     * Closes every session still in use, e.g. at suite end after reporting them as leaks.
+     * Parked and pre-warmed sessions are left to {@link DriverManager#quitAllSessions()}.
+     * @return How many sessions were closed
+     */
+    public static int reapAll(String reason) {
+        int reaped = 0;
+        for (Lease lease : leases()) {
+            if (lease.state == State.IN_USE && reap(lease, reason)) {
+                reaped++;
+            }
+        }
+        return reaped;
+    }
+    
+    private static boolean reap(Lease lease, String reason) {
+        if (!LEASES.remove(lease.driver, lease)) {
+            // Closed, taken from the pool or put back in the meantime
+            return false;
+        }
+        if (lease.state != State.IN_USE && !SessionPool.getInstance().removeKept(lease.endpoint, lease.driver)) {
+            // A lease took it just now and will register it as in use
+            return false;
+        }
+        String line = lease + " - " + reason;
+        log.warn("Reaping session {}", line);
+        REAPED.add(line);
+        if (lease.state == State.IN_USE) {
+            DriverManager.discardContext(lease.context);
+        } else {
+            DriverManager.quietQuit(lease.driver);
+        }
+        return true;
+    }
+    
+    /**
+     * @return The sessions currently tracked, oldest first
+     */
+    public static List<Lease> leases() {
+        List<Lease> leases = new ArrayList<>(LEASES.values());
+        leases.sort((a, b) -> a.createdAt.compareTo(b.createdAt));
+        return leases;
+    }
+    
+    /**
+     * @return One line per session the watchdog closed during the run, with the reason
+     */
+    public static List<String> getReaped() {
+        return Collections.unmodifiableList(new ArrayList<>(REAPED));
+    }
+    
+    /**
+     * Builds the end-of-suite report: sessions still in use (leaks), sessions the pool still
+     * keeps (parked or pre-warmed, quit by {@link DriverManager#quitAllSessions()}) and
+     * sessions reaped during the run.
+     * @return Report lines, empty if every session was closed by its owner
+     */
+    public static List<String> leakReport() {
+        List<String> lines = new ArrayList<>();
+        for (Lease lease : leases()) {
+            lines.add((lease.state == State.IN_USE ? "LEAKED " : lease.state + " ") + lease);
+        }
+        for (String reaped : REAPED) {
+            lines.add("REAPED " + reaped);
+        }
+        return lines;
+    }
+    
+    /**
+     * One tracked session.
+     */
+    public static final class Lease {
+        
+        private final AndroidDriver driver;
+        private final DeviceEndpoint endpoint;
+        private final DriverContext context;
+        private final State state;
+        private final String registeredBy;
+        private final Instant createdAt;
+        private volatile long lastCommandNanos = System.nanoTime();
+        
+        Lease(AndroidDriver driver, DeviceEndpoint endpoint, DriverContext context, State state,
+              String registeredBy, Instant createdAt) {
+            this.driver = driver;
+            this.endpoint = endpoint;
+            this.context = context;
+            this.state = state;
+            this.registeredBy = registeredBy;
+            this.createdAt = createdAt;
+        }
+        
+        /**
+         * @return The context using the session, or null while the pool keeps it
+         */
+        public DriverContext getContext() {
+            return context;
+        }
+        
+        public DeviceEndpoint getEndpoint() {
+            return endpoint;
+        }
+        
+        public State getState() {
+            return state;
+        }
+        
+        /**
+         * @return Name of the thread that opened the context or handed the session to the pool
+         */
+        public String getRegisteredBy() {
+            return registeredBy;
+        }
+        
+        public Instant getCreatedAt() {
+            return createdAt;
+        }
+        
+        /**
+         * @return Time since the session last sent a command (or changed state)
+         */
+        public Duration getIdle() {
+            return Duration.ofNanos(System.nanoTime() - lastCommandNanos);
+        }
+        
+        @Override
+        public String toString() {
+            String session = context != null ? context.toString()
+                : "session on " + (endpoint != null ? endpoint.getId() : "unpooled");
+            return session + " registered by " + registeredBy + ", age "
+                + Duration.between(createdAt, Instant.now()).getSeconds() + " s, idle " + getIdle().getSeconds() + " s";
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.saucelab.driver;
+
+import com.saucelab.config.ConfigLoader;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A named set of UiAutomator2 runtime settings (e.g. waitForIdleTimeout), read from the
+ * settings.profile.&lt;name&gt;.* keys. Every profile starts from the "default" profile, so
+ * switching from one profile to another also restores what the first one changed.
+ */
+public final class SettingsProfile {
+    
+    public static final String DEFAULT = "default";
+    
+    private static final String PREFIX = "settings.profile.";
+    
+    private final String name;
+    private final Map<String, Object> settings;
+    
+    public SettingsProfile(String name, Map<String, Object> settings) {
+        this.name = name;
+        this.settings = Collections.unmodifiableMap(new LinkedHashMap<>(settings));
+    }
+    
+    /**
+     * Builds a profile from config: the default profile's settings overlaid with the named one's.
+     * An unknown name gives the default profile's settings under that name.
+     * @param name The profile name, e.g. "list-read"
+     * @return The profile
+     */
+    public static SettingsProfile named(String name) {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        ConfigLoader.getPropertiesWithPrefix(PREFIX + DEFAULT + ".").forEach((key, value) -> settings.put(key, parse(value)));
+        if (!DEFAULT.equals(name)) {
+            ConfigLoader.getPropertiesWithPrefix(PREFIX + name + ".").forEach((key, value) -> settings.put(key, parse(value)));
+        }
+        return new SettingsProfile(name, settings);
+    }
+    
+    /**
+     * Settings are sent as JSON, so "true"/"false" and whole numbers keep their types.
+     */
+    private static Object parse(String value) {
+        String trimmed = value.trim();
+        if ("true".equalsIgnoreCase(trimmed) || "false".equalsIgnoreCase(trimmed)) {
+            return Boolean.parseBoolean(trimmed);
+        }
+        try {
+            return Long.parseLong(trimmed);
+        } catch (NumberFormatException e) {
+            return trimmed;
+        }
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public Map<String, Object> getSettings() {
+        return settings;
+    }
+    
+    @Override
+    public String toString() {
+        return name + settings;
+    }
+}
@@ -0,0 +1,182 @@
+package com.saucelab.metrics;
+
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Suite-wide latency histograms per WebDriver command, per calling page method and per
+ * command under each UiAutomator2 settings profile.
+ * Recording is lock-free; call {@link #report(Path)} once when the suite ends.
+ */
+public final class CommandMetrics {
+    
+    private static final Logger log = LoggerFactory.getLogger(CommandMetrics.class);
+    
+    private static final String BASE_PAGE = "com.saucelab.pages.BasePage";
+    private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    // Matched by name, so metrics does not depend on the pages package
+    private static final ClassValue<Boolean> PAGE_OBJECT = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> parent = type.getSuperclass(); parent != null; parent = parent.getSuperclass()) {
+                if (parent.getName().equals(BASE_PAGE)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    };
+    
+    private static final ConcurrentMap<String, LatencyHistogram> BY_COMMAND = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LatencyHistogram> BY_PAGE_METHOD = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LatencyHistogram> BY_PROFILE = new ConcurrentHashMap<>();
+    
+    private CommandMetrics() {
+        // Utility class
+    }
+    
+    /**
+     * Records one driver command and attributes it to the page method that issued it.
+     * @param command The WebDriver command name (e.g. "findElement")
+     * @param micros How long the command took
+     */
+    public static void record(String command, long micros) {
+        BY_COMMAND.computeIfAbsent(command, k -> new LatencyHistogram()).record(micros);
+        String caller = callingPageMethod();
+        if (caller != null) {
+            BY_PAGE_METHOD.computeIfAbsent(caller, k -> new LatencyHistogram()).record(micros);
+        }
+    }
+    
+    /**
+     * Records one driver command and attributes it to the calling page method and to the
+     * settings profile that was active on the session.
+     * @param command The WebDriver command name (e.g. "findElement")
+     * @param profile The active settings profile, or null if none
+     * @param micros How long the command took
+     */
+    public static void record(String command, String profile, long micros) {
+        record(command, micros);
+        if (profile != null) {
+            BY_PROFILE.computeIfAbsent(profile + " / " + command, k -> new LatencyHistogram()).record(micros);
+        }
+    }
+    
+    /**
+     * Finds the innermost page-object method on the current stack, e.g. "CartPage.getFirstItemName".
+     * Only methods declared by BasePage subclasses count: BasePage helpers are skipped in favour
+     * of the page method that called them, and flows that drive several pages (PriceSweep,
+     * LoginPage.login) do not absorb the page methods they call.
+     */
+    static String callingPageMethod() {
+        Optional<StackWalker.StackFrame> frame = WALKER.walk(frames -> frames
+            .filter(f -> PAGE_OBJECT.get(f.getDeclaringClass()))
+            .filter(f -> !f.getMethodName().startsWith("lambda$"))
+            .findFirst());
+        return frame.map(f -> f.getDeclaringClass().getSimpleName() + "." + f.getMethodName())
+            .orElse(null);
+    }
+    
+    public static Map<String, LatencyHistogram> byCommand() {
+        return new TreeMap<>(BY_COMMAND);
+    }
+    
+    public static Map<String, LatencyHistogram> byPageMethod() {
+        return new TreeMap<>(BY_PAGE_METHOD);
+    }
+    
+    /**
+     * Gets the histograms keyed "profile / command", e.g. "list-read / findElement".
+     */
+    public static Map<String, LatencyHistogram> byProfile() {
+        return new TreeMap<>(BY_PROFILE);
+    }
+    
+    public static void reset() {
+        BY_COMMAND.clear();
+        BY_PAGE_METHOD.clear();
+        BY_PROFILE.clear();
+    }
+    
+    /**
+     * Builds the summary table (count, total, p50/p90/p99/max in ms) for every view.
+     * @return Printable table
+     */
+    public static String summaryTable() {
+        StringBuilder table = new StringBuilder();
+        appendTable(table, "WebDriver command", byCommand());
+        appendTable(table, "Page method", byPageMethod());
+        if (!BY_PROFILE.isEmpty()) {
+            appendTable(table, "Settings profile / command", byProfile());
+        }
+        return table.toString();
+    }
+    
+    /**
+     * Prints the summary table and writes the same data as JSON.
+     * @param output Where to write the machine-readable report
+     */
+    public static void report(Path output) {
+        if (BY_COMMAND.isEmpty()) {
+            return;
+        }
+        log.info("Command latency summary\n{}", summaryTable());
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("commands", toJson(byCommand()));
+        json.put("pageMethods", toJson(byPageMethod()));
+        json.put("settingsProfiles", toJson(byProfile()));
+        try {
+            if (output.getParent() != null) {
+                Files.createDirectories(output.getParent());
+            }
+            Files.write(output, new Json().toJson(json).getBytes(StandardCharsets.UTF_8));
+            log.info("Wrote command metrics to {}", output);
+        } catch (IOException e) {
+            log.warn("Failed to write command metrics: {}", e.getMessage());
+        }
+    }
+    
+    private static void appendTable(StringBuilder table, String title, Map<String, LatencyHistogram> rows) {
+        table.append(String.format("%-50s %7s %10s %9s %9s %9s %9s%n",
+            title, "count", "total ms", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (Map.Entry<String, LatencyHistogram> row : rows.entrySet()) {
+            LatencyHistogram h = row.getValue();
+            table.append(String.format("%-50s %7d %10.1f %9.1f %9.1f %9.1f %9.1f%n",
+                row.getKey(), h.getCount(), h.getTotalMicros() / 1000.0,
+                h.getPercentileMicros(50) / 1000.0, h.getPercentileMicros(90) / 1000.0,
+                h.getPercentileMicros(99) / 1000.0, h.getMaxMicros() / 1000.0));
+        }
+        table.append(System.lineSeparator());
+    }
+    
+    private static List<Map<String, Object>> toJson(Map<String, LatencyHistogram> rows) {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> row : rows.entrySet()) {
+            LatencyHistogram h = row.getValue();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", row.getKey());
+            entry.put("count", h.getCount());
+            entry.put("totalMicros", h.getTotalMicros());
+            entry.put("p50Micros", h.getPercentileMicros(50));
+            entry.put("p90Micros", h.getPercentileMicros(90));
+            entry.put("p99Micros", h.getPercentileMicros(99));
+            entry.put("maxMicros", h.getMaxMicros());
+            list.add(entry);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,119 @@
+package com.saucelab.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Suite-wide find latency per locator ("using=value"), so slow locator strategies such as
+ * XPath show up by name. Finds of a rewritten locator are counted under the original XPath,
+ * and the time saved is estimated from the XPath finds made for calibration.
+ */
+public final class LocatorMetrics {
+    
+    private static final ConcurrentMap<String, LatencyHistogram> BY_LOCATOR = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LatencyHistogram> BY_REWRITE = new ConcurrentHashMap<>();
+    // rewritten locator -> original locator
+    private static final ConcurrentMap<String, String> ORIGINALS = new ConcurrentHashMap<>();
+    
+    private LocatorMetrics() {
+        // Utility class
+    }
+    
+    /**
+     * Notes that finds of the rewritten locator stand in for the original one.
+     */
+    public static void registerRewrite(String original, String rewritten) {
+        ORIGINALS.put(rewritten, original);
+    }
+    
+    /**
+     * Records one find command.
+     * @param using The locator strategy sent to the server (e.g. "xpath")
+     * @param value The locator value
+     * @param micros How long the find took
+     */
+    public static void record(String using, String value, long micros) {
+        String locator = using + "=" + value;
+        String original = ORIGINALS.get(locator);
+        if (original != null) {
+            BY_REWRITE.computeIfAbsent(original, k -> new LatencyHistogram()).record(micros);
+        } else {
+            BY_LOCATOR.computeIfAbsent(locator, k -> new LatencyHistogram()).record(micros);
+        }
+    }
+    
+    /**
+     * Gets how many finds were sent with a locator as written, not counting its rewrites.
+     * @param locator "using=value", e.g. "xpath=//*[@text='LOGIN']"
+     */
+    public static long findCount(String locator) {
+        LatencyHistogram histogram = BY_LOCATOR.get(locator);
+        return histogram == null ? 0 : histogram.getCount();
+    }
+    
+    public static void reset() {
+        BY_LOCATOR.clear();
+        BY_REWRITE.clear();
+    }
+    
+    /**
+     * Estimated time saved by a rewritten locator: (mean XPath find - mean rewritten find)
+     * times the number of rewritten finds.
+     * @return Saved milliseconds, or NaN if no XPath find was measured for comparison
+     */
+    public static double savedMillis(String original) {
+        LatencyHistogram rewritten = BY_REWRITE.get(original);
+        LatencyHistogram xpath = BY_LOCATOR.get(original);
+        if (rewritten == null || xpath == null || xpath.getCount() == 0) {
+            return Double.NaN;
+        }
+        double xpathMean = xpath.getTotalMicros() / (double) xpath.getCount();
+        double rewrittenMean = rewritten.getTotalMicros() / (double) rewritten.getCount();
+        return (xpathMean - rewrittenMean) * rewritten.getCount() / 1000.0;
+    }
+    
+    /**
+     * Builds one line per locator, most expensive first, or an empty string if nothing was found.
+     */
+    public static String summaryTable() {
+        Map<String, LatencyHistogram> direct = new TreeMap<>(BY_LOCATOR);
+        Map<String, LatencyHistogram> rewrites = new TreeMap<>(BY_REWRITE);
+        if (direct.isEmpty() && rewrites.isEmpty()) {
+            return "";
+        }
+        List<String> locators = new ArrayList<>(direct.keySet());
+        rewrites.keySet().stream().filter(k -> !direct.containsKey(k)).forEach(locators::add);
+        locators.sort(Comparator.comparingLong((String k) -> totalMicros(direct.get(k)) + totalMicros(rewrites.get(k)))
+            .reversed());
+        
+        StringBuilder table = new StringBuilder(String.format("%-80s %6s %9s %9s %9s %10s%n",
+            "Locator", "finds", "mean ms", "rewrites", "mean ms", "saved ms"));
+        for (String locator : locators) {
+            LatencyHistogram own = direct.get(locator);
+            LatencyHistogram rewritten = rewrites.get(locator);
+            double saved = savedMillis(locator);
+            table.append(String.format("%-80s %6d %9s %9d %9s %10s%n",
+                abbreviate(locator, 80), own == null ? 0 : own.getCount(), mean(own),
+                rewritten == null ? 0 : rewritten.getCount(), mean(rewritten),
+                rewritten == null ? "" : Double.isNaN(saved) ? "n/a" : String.format("%.1f", saved)));
+        }
+        return table.toString();
+    }
+    
+    private static long totalMicros(LatencyHistogram h) {
+        return h == null ? 0 : h.getTotalMicros();
+    }
+    
+    private static String mean(LatencyHistogram h) {
+        return h == null || h.getCount() == 0 ? "-" : String.format("%.1f", h.getTotalMicros() / 1000.0 / h.getCount());
+    }
+    
+    private static String abbreviate(String value, int width) {
+        return value.length() <= width ? value : value.substring(0, width - 3) + "...";
+    }
+}
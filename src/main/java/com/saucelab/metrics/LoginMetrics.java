@@ -0,0 +1,41 @@
+package com.saucelab.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Suite-wide count and latency of logins per path taken, e.g. "deeplink", "ui" or
+ * "ui (deeplink failed)", so the gain from a fast login strategy is visible.
+ */
+public final class LoginMetrics {
+    
+    private static final ConcurrentMap<String, LatencyHistogram> BY_PATH = new ConcurrentHashMap<>();
+    
+    private LoginMetrics() {
+        // Utility class
+    }
+    
+    public static void record(String path, long micros) {
+        BY_PATH.computeIfAbsent(path, k -> new LatencyHistogram()).record(micros);
+    }
+    
+    public static Map<String, LatencyHistogram> byPath() {
+        return new TreeMap<>(BY_PATH);
+    }
+    
+    public static void reset() {
+        BY_PATH.clear();
+    }
+    
+    /**
+     * Builds a one-line-per-path summary, or an empty string if nobody logged in.
+     */
+    public static String summaryTable() {
+        StringBuilder table = new StringBuilder();
+        byPath().forEach((path, h) -> table.append(String.format("%-30s %5d login(s), mean %7.1f ms, p90 %7.1f ms%n",
+            path, h.getCount(), h.getTotalMicros() / 1000.0 / h.getCount(), h.getPercentileMicros(90) / 1000.0)));
+        return table.toString();
+    }
+}
@@ -0,0 +1,211 @@
+package com.saucelab.metrics;
+
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stored per-step timings from earlier runs, kept as a JSON file of recent samples per step:
+ * {"steps": {"login": [812, 790, ...], ...}}.
+ * Recording runs append their samples; checking runs compare a percentile of the current
+ * samples with the same percentile of the baseline.
+ */
+public final class PerformanceBaseline {
+    
+    private static final Logger log = LoggerFactory.getLogger(PerformanceBaseline.class);
+    
+    private final Map<String, List<Long>> steps;
+    
+    private PerformanceBaseline(Map<String, List<Long>> steps) {
+        this.steps = steps;
+    }
+    
+    /**
+     * Loads a baseline file; a missing file gives an empty baseline.
+     * @param file The baseline file
+     * @return PerformanceBaseline instance
+     */
+    public static PerformanceBaseline load(Path file) {
+        Map<String, List<Long>> steps = new TreeMap<>();
+        if (!Files.isRegularFile(file)) {
+            return new PerformanceBaseline(steps);
+        }
+        try {
+            Map<String, Object> json = new Json().toType(
+                new String(Files.readAllBytes(file), StandardCharsets.UTF_8), Json.MAP_TYPE);
+            Object stored = json.get("steps");
+            if (stored instanceof Map) {
+                for (Map.Entry<?, ?> step : ((Map<?, ?>) stored).entrySet()) {
+                    List<Long> samples = new ArrayList<>();
+                    if (step.getValue() instanceof List) {
+                        for (Object sample : (List<?>) step.getValue()) {
+                            if (sample instanceof Number) {
+                                samples.add(((Number) sample).longValue());
+                            }
+                        }
+                    }
+                    steps.put(String.valueOf(step.getKey()), samples);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Could not read performance baseline " + file + ": " + e.getMessage(), e);
+        }
+        return new PerformanceBaseline(steps);
+    }
+    
+    public boolean isEmpty() {
+        return steps.isEmpty();
+    }
+    
+    public Map<String, List<Long>> getSteps() {
+        return Collections.unmodifiableMap(steps);
+    }
+    
+    /**
+     * Appends the samples of a run, keeping only the most recent ones per step.
+     * @param run Samples by step name
+     * @param maxSamples Samples to keep per step
+     */
+    public void merge(Map<String, List<Long>> run, int maxSamples) {
+        run.forEach((name, samples) -> {
+            List<Long> merged = steps.computeIfAbsent(name, k -> new ArrayList<>());
+            merged.addAll(samples);
+            if (merged.size() > maxSamples) {
+                merged.subList(0, merged.size() - maxSamples).clear();
+            }
+        });
+    }
+    
+    public void save(Path file) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("steps", steps);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.write(file, new Json().toJson(json).getBytes(StandardCharsets.UTF_8));
+            log.info("Wrote performance baseline for {} step(s) to {}", steps.size(), file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write performance baseline " + file, e);
+        }
+    }
+    
+    /**
+     * Compares a run with this baseline. A step regresses when its current percentile exceeds
+     * the baseline percentile by more than {@code tolerancePercent} plus {@code slackMillis};
+     * the absolute slack keeps very short steps from failing on scheduling noise.
+     * @param run Samples of the current run by step name
+     * @param percentile Percentile to compare (e.g. 90)
+     * @param tolerancePercent Allowed slowdown in percent
+     * @param slackMillis Allowed slowdown in milliseconds on top of the percentage
+     * @return One diff per step of the run, in name order
+     */
+    public List<StepDiff> compare(Map<String, List<Long>> run, int percentile, double tolerancePercent, long slackMillis) {
+        List<StepDiff> diffs = new ArrayList<>();
+        for (Map.Entry<String, List<Long>> step : new TreeMap<>(run).entrySet()) {
+            long current = percentile(step.getValue(), percentile);
+            List<Long> stored = steps.get(step.getKey());
+            if (stored == null || stored.isEmpty()) {
+                diffs.add(new StepDiff(step.getKey(), -1, current, -1));
+                continue;
+            }
+            long baseline = percentile(stored, percentile);
+            long limit = Math.round(baseline * (1 + tolerancePercent / 100.0)) + slackMillis;
+            diffs.add(new StepDiff(step.getKey(), baseline, current, limit));
+        }
+        return diffs;
+    }
+    
+    /**
+     * Nearest-rank percentile of a list of samples.
+     */
+    static long percentile(List<Long> samples, int percentile) {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = new ArrayList<>(samples);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.min(sorted.size(), Math.max(1, rank)) - 1);
+    }
+    
+    /**
+     * Builds a printable per-step table of baseline vs current timings.
+     */
+    public static String diffReport(List<StepDiff> diffs, int percentile) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-20s %12s %12s %10s %10s  %s%n",
+            "Step", "base p" + percentile, "now p" + percentile, "change", "limit", "result"));
+        for (StepDiff diff : diffs) {
+            if (diff.isNew()) {
+                report.append(String.format("%-20s %12s %9d ms %10s %10s  %s%n",
+                    diff.getStep(), "-", diff.getCurrentMillis(), "-", "-", "NEW"));
+                continue;
+            }
+            report.append(String.format("%-20s %9d ms %9d ms %+9.1f%% %7d ms  %s%n",
+                diff.getStep(), diff.getBaselineMillis(), diff.getCurrentMillis(), diff.getChangePercent(),
+                diff.getLimitMillis(), diff.isRegression() ? "REGRESSION" : "ok"));
+        }
+        return report.toString();
+    }
+    
+    /**
+     * Result of comparing one step with the baseline.
+     */
+    public static final class StepDiff {
+        
+        private final String step;
+        private final long baselineMillis;
+        private final long currentMillis;
+        private final long limitMillis;
+        
+        StepDiff(String step, long baselineMillis, long currentMillis, long limitMillis) {
+            this.step = step;
+            this.baselineMillis = baselineMillis;
+            this.currentMillis = currentMillis;
+            this.limitMillis = limitMillis;
+        }
+        
+        public String getStep() {
+            return step;
+        }
+        
+        /**
+         * Gets the baseline percentile, or -1 if the step is not in the baseline.
+         */
+        public long getBaselineMillis() {
+            return baselineMillis;
+        }
+        
+        public long getCurrentMillis() {
+            return currentMillis;
+        }
+        
+        public long getLimitMillis() {
+            return limitMillis;
+        }
+        
+        public boolean isNew() {
+            return baselineMillis < 0;
+        }
+        
+        public boolean isRegression() {
+            return !isNew() && currentMillis > limitMillis;
+        }
+        
+        public double getChangePercent() {
+            return baselineMillis > 0 ? (currentMillis - baselineMillis) * 100.0 / baselineMillis : 0;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.saucelab.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wall-clock timings of named user-level steps (e.g. "login", "open cart") for the current run.
+ * A step is timed from the action until the test has confirmed the resulting screen.
+ * Compared against a stored baseline by {@link PerformanceBaseline}.
+ */
+public final class StepTimings {
+    
+    private static final ConcurrentMap<String, List<Long>> SAMPLES = new ConcurrentHashMap<>();
+    
+    private StepTimings() {
+        // Utility class
+    }
+    
+    /**
+     * Starts timing a step; call {@link Step#stop()} once the step is complete.
+     * @param name The step name
+     * @return Running step
+     */
+    public static Step start(String name) {
+        return new Step(name, System.nanoTime());
+    }
+    
+    public static void record(String name, long millis) {
+        List<Long> samples = SAMPLES.computeIfAbsent(name, k -> Collections.synchronizedList(new ArrayList<>()));
+        samples.add(millis);
+    }
+    
+    /**
+     * Gets a copy of the samples recorded in this run, by step name.
+     */
+    public static Map<String, List<Long>> samples() {
+        Map<String, List<Long>> copy = new TreeMap<>();
+        SAMPLES.forEach((name, samples) -> {
+            synchronized (samples) {
+                copy.put(name, new ArrayList<>(samples));
+            }
+        });
+        return copy;
+    }
+    
+    public static void reset() {
+        SAMPLES.clear();
+    }
+    
+    /**
+     * A step being timed.
+     */
+    public static final class Step {
+        
+        private final String name;
+        private final long startNanos;
+        
+        private Step(String name, long startNanos) {
+            this.name = name;
+            this.startNanos = startNanos;
+        }
+        
+        /**
+         * Records the elapsed time of the step.
+         * @return Elapsed milliseconds
+         */
+        public long stop() {
+            long millis = (System.nanoTime() - startNanos) / 1_000_000;
+            record(name, millis);
+            return millis;
+        }
+    }
+}
@@ -1,120 +1,438 @@
 package com.saucelab.pages;
 
+import com.saucelab.config.ConfigLoader;
+import com.saucelab.driver.DriverContext;
 import com.saucelab.driver.DriverManager;
+import com.saucelab.driver.SessionSettings;
+import com.saucelab.driver.SettingsProfile;
 import io.appium.java_client.AppiumBy;
 import io.appium.java_client.android.AndroidDriver;
 import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 /**
  * Base Page class containing common methods for all page objects.
  * Provides utility methods for waiting, clicking, typing, and element interactions.
+ * When snapshot reads are enabled, read helpers answer from one parsed page source
+ * until the next click, type or scroll invalidates it.
  */
 public abstract class BasePage {
     
+    private static final Logger log = LoggerFactory.getLogger(BasePage.class);
+    
+    // Shared per context so a mutation through any page object invalidates the snapshot;
+    // a session reused after an app reset gets a new context and so starts without one
+    private static final Map<DriverContext, PageSnapshot> SNAPSHOTS =
+        Collections.synchronizedMap(new WeakHashMap<>());
+    
+    // UiScrollable expressions are built once; only the scrollIntoView target varies
+    private static final String SCROLLABLE = "new UiScrollable(new UiSelector().scrollable(true))";
+    private static final String SCROLL_INTO_VIEW = SCROLLABLE + ".scrollIntoView(";
+    private static final By SCROLL_FORWARD = AppiumBy.androidUIAutomator(SCROLLABLE + ".scrollForward()");
+    
+    protected final DriverContext context;
     protected AndroidDriver driver;
     protected WebDriverWait wait;
+    private boolean snapshotReads;
+    private SettingsProfile settingsProfile;
+    private final ElementCache elementCache = new ElementCache();
+    // Nesting depth of withoutImplicitWait; only the outermost call sends setTimeouts
+    private int implicitWaitSuspensions;
     
+    /**
+     * Creates the page on the driver context bound to the current thread.
+     */
     public BasePage() {
-        this.driver = DriverManager.getDriver();
-        this.wait = DriverManager.getWait();
+        this(DriverManager.getContext());
+    }
+    
+    /**
+     * Creates the page on an explicit driver context, which may be used from any thread.
+     * Pages pass their context on to the pages they navigate to.
+     * @param context The session to drive
+     */
+    public BasePage(DriverContext context) {
+        this.context = context;
+        this.driver = context.getDriver();
+        this.wait = context.getWait();
+        this.snapshotReads = ConfigLoader.isPageSnapshotEnabled();
+    }
+    
+    /**
+     * Gets the element cache statistics for this page object.
+     * @return ElementCache with hit/miss/stale counts
+     */
+    public ElementCache getElementCache() {
+        return elementCache;
+    }
+    
+    /**
+     * Enables or disables snapshot reads for this page object.
+     * @param enabled true to answer reads from the cached page source
+     */
+    protected void useSnapshots(boolean enabled) {
+        this.snapshotReads = enabled;
+    }
+    
+    /**
+     * @return true if reads on this page object are answered from the cached page source
+     */
+    protected boolean usesSnapshots() {
+        return snapshotReads;
+    }
+    
+    /**
+     * Names the UiAutomator2 settings profile (settings.profile.&lt;name&gt;.* keys) this page
+     * wants while it is being driven. Pages with a different workload, e.g. reading a long
+     * list or typing into a form, override this.
+     */
+    protected String settingsProfileName() {
+        return SettingsProfile.DEFAULT;
+    }
+    
+    /**
+     * Switches the session to this page's settings profile if another one is active.
+     * Costs nothing when the profile is already active; otherwise sends only the settings that differ.
+     */
+    protected void activate() {
+        if (!ConfigLoader.isSettingsProfilesEnabled()) {
+            return;
+        }
+        if (settingsProfile == null) {
+            settingsProfile = SettingsProfile.named(settingsProfileName());
+        }
+        SessionSettings.of(driver).activate(driver, settingsProfile);
+    }
+    
+    /**
+     * Gets the page source snapshot for the current session, fetching it if needed.
+     */
+    protected PageSnapshot snapshot() {
+        PageSnapshot snapshot = SNAPSHOTS.get(context);
+        if (snapshot == null) {
+            activate();
+            long start = System.currentTimeMillis();
+            snapshot = PageSnapshot.parse(driver.getPageSource());
+            SNAPSHOTS.put(context, snapshot);
+            log.debug("Captured page snapshot in {} ms", System.currentTimeMillis() - start);
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Gets a page source snapshot for one bulk read. With snapshot reads this is the cached
+     * snapshot; without, a fresh one that is not kept, so later reads still go to the screen.
+     */
+    protected PageSnapshot bulkReadSnapshot() {
+        if (snapshotReads) {
+            return snapshot();
+        }
+        activate();
+        return PageSnapshot.parse(driver.getPageSource());
+    }
+    
+    /**
+     * Drops the cached page source after an action that may change the screen.
+     */
+    protected void invalidateSnapshot() {
+        discardSnapshot(context);
+    }
+    
+    /**
+     * Drops a session's cached page source after something other than a page object changed
+     * the screen, e.g. a deep link.
+     */
+    static void discardSnapshot(DriverContext context) {
+        SNAPSHOTS.remove(context);
+    }
+    
+    /**
+     * Finds displayed snapshot nodes for the locator, or returns an empty list when
+     * snapshot reads are off or the locator strategy is not supported.
+     */
+    private List<PageSnapshot.SnapshotNode> snapshotMatches(By locator) {
+        if (!snapshotReads || !PageSnapshot.supports(locator)) {
+            return Collections.emptyList();
+        }
+        List<PageSnapshot.SnapshotNode> displayed = new ArrayList<>();
+        for (PageSnapshot.SnapshotNode node : snapshot().find(locator)) {
+            if (node.isDisplayed()) {
+                displayed.add(node);
+            }
+        }
+        if (displayed.isEmpty()) {
+            // Screen may not have settled yet; the live path below waits for it
+            invalidateSnapshot();
+        }
+        return displayed;
     }
     
     /**
      * Waits for element to be visible and returns it.
      */
     protected WebElement waitForElement(By locator) {
-        System.out.println("[PAGE] Waiting for element: " + locator);
-        return wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+        log.debug("Waiting for element: {}", locator);
+        activate();
+        return wait.until(ExpectedConditions.visibilityOfElementLocated(LocatorRewriter.resolve(locator)));
+    }
+    
+    /**
+     * Starts a wait for the first of several named outcomes, checked together on each poll.
+     * The page source its polls read is not kept: the screen may still be settling when an
+     * outcome first shows, so the next read fetches it again.
+     * @return A wait to add outcomes to with {@link CompositeWait#on(String, By)}
+     */
+    protected CompositeWait waitForAny() {
+        activate();
+        invalidateSnapshot();
+        return new CompositeWait(driver, this::isDisplayedNow, this::withoutImplicitWait);
     }
     
     /**
      * Waits for element to be clickable and returns it.
      */
     protected WebElement waitForClickable(By locator) {
-        System.out.println("[PAGE] Waiting for clickable: " + locator);
-        return wait.until(ExpectedConditions.elementToBeClickable(locator));
+        log.debug("Waiting for clickable: {}", locator);
+        activate();
+        return wait.until(ExpectedConditions.elementToBeClickable(LocatorRewriter.resolve(locator)));
     }
     
     /**
      * Clicks on an element after waiting for it to be clickable.
      */
     protected void click(By locator) {
-        WebElement element = waitForClickable(locator);
-        System.out.println("[PAGE] Clicking: " + locator);
-        element.click();
+        elementCache.with(locator, this::waitForClickable, element -> {
+            log.debug("Clicking: {}", locator);
+            element.click();
+            return null;
+        });
+        // The clicked element often changes state or disappears, so don't reuse it
+        elementCache.evict(locator);
+        invalidateSnapshot();
     }
     
     /**
      * Types text into an element after clearing it.
      */
     protected void type(By locator, String text) {
-        WebElement element = waitForElement(locator);
-        System.out.println("[PAGE] Typing '" + text + "' into: " + locator);
-        element.clear();
-        element.sendKeys(text);
+        elementCache.with(locator, this::waitForElement, element -> {
+            // Never log the value itself - it may be a password
+            log.debug("Typing {} character(s) into: {}", text.length(), locator);
+            element.clear();
+            element.sendKeys(text);
+            return null;
+        });
+        invalidateSnapshot();
     }
     
     /**
      * Gets the text of an element.
      */
     protected String getText(By locator) {
-        WebElement element = waitForElement(locator);
-        String text = element.getText();
-        System.out.println("[PAGE] Got text '" + text + "' from: " + locator);
+        List<PageSnapshot.SnapshotNode> nodes = snapshotMatches(locator);
+        if (!nodes.isEmpty()) {
+            String text = nodes.get(0).getText();
+            log.debug("Got text '{}' from snapshot: {}", text, locator);
+            return text;
+        }
+        String text = elementCache.with(locator, this::waitForElement, WebElement::getText);
+        log.debug("Got text '{}' from: {}", text, locator);
         return text;
     }
     
     /**
-     * Checks if an element is displayed.
+     * Checks if an element is displayed, waiting up to the explicit wait.
+     * The implicit wait is suspended meanwhile so the two timeouts do not add up.
      */
     protected boolean isDisplayed(By locator) {
+        if (!snapshotMatches(locator).isEmpty()) {
+            log.debug("Element displayed in snapshot: {}", locator);
+            return true;
+        }
         try {
-            WebElement element = waitForElement(locator);
-            boolean displayed = element.isDisplayed();
-            System.out.println("[PAGE] Element displayed: " + displayed + " - " + locator);
+            boolean displayed = withoutImplicitWait(() -> {
+                if (elementCache.with(locator, this::waitForElement, WebElement::isDisplayed)) {
+                    return true;
+                }
+                // A cached handle may be hidden right now - wait for visibility like a fresh lookup
+                elementCache.evict(locator);
+                return waitForElement(locator).isDisplayed();
+            });
+            log.debug("Element displayed: {} - {}", displayed, locator);
             return displayed;
         } catch (Exception e) {
-            System.out.println("[PAGE] Element not found: " + locator);
+            log.debug("Element not found: {}", locator);
             return false;
         }
     }
     
+    /**
+     * Checks if an element becomes displayed within the presence budget (presence.timeout.ms).
+     * Use for checks that are expected to fail fast, e.g. "is this the Cart page?".
+     */
+    protected boolean isPresent(By locator) {
+        return isPresent(locator, Duration.ofMillis(ConfigLoader.getPresenceTimeoutMillis()));
+    }
+    
+    /**
+     * Checks if an element becomes displayed within the given budget.
+     * @param locator The element to look for
+     * @param budget How long to poll before returning false
+     */
+    protected boolean isPresent(By locator, Duration budget) {
+        if (!snapshotMatches(locator).isEmpty()) {
+            return true;
+        }
+        boolean present = poll(budget, () -> isDisplayedNow(locator));
+        log.debug("Element present: {} - {}", present, locator);
+        return present;
+    }
+    
+    /**
+     * Checks if an element is gone (or never appeared) within the absence budget (absence.timeout.ms).
+     */
+    protected boolean isAbsent(By locator) {
+        return isAbsent(locator, Duration.ofMillis(ConfigLoader.getAbsenceTimeoutMillis()));
+    }
+    
+    /**
+     * Checks if an element is gone (or never appeared) within the given budget.
+     * Returns as soon as the element is not displayed, so a missing element costs one find.
+     * @param locator The element that should not be displayed
+     * @param budget How long to wait for the element to disappear
+     */
+    protected boolean isAbsent(By locator, Duration budget) {
+        invalidateSnapshot();
+        boolean absent = poll(budget, () -> !isDisplayedNow(locator));
+        log.debug("Element absent: {} - {}", absent, locator);
+        return absent;
+    }
+    
+    /**
+     * Single non-waiting visibility check. Expects the implicit wait to be suspended.
+     */
+    private boolean isDisplayedNow(By locator) {
+        activate();
+        for (WebElement element : driver.findElements(LocatorRewriter.resolve(locator))) {
+            try {
+                if (element.isDisplayed()) {
+                    return true;
+                }
+            } catch (StaleElementReferenceException e) {
+                // Element went away between find and check - treat as not displayed
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Polls a condition with the implicit wait turned off until it holds or the budget runs out.
+     */
+    private boolean poll(Duration budget, BooleanSupplier condition) {
+        long pollMillis = ConfigLoader.getPresencePollMillis();
+        return withoutImplicitWait(() -> {
+            long deadline = System.nanoTime() + budget.toNanos();
+            while (true) {
+                if (condition.getAsBoolean()) {
+                    return true;
+                }
+                if (System.nanoTime() >= deadline) {
+                    return false;
+                }
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        });
+    }
+    
+    /**
+     * Runs an action with the implicit wait set to zero and restores it afterwards. Calls made
+     * inside the action send no further setTimeouts, so wrap a whole check or wait once rather
+     * than each poll.
+     */
+    protected <T> T withoutImplicitWait(Supplier<T> action) {
+        if (implicitWaitSuspensions++ == 0) {
+            driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        }
+        try {
+            return action.get();
+        } finally {
+            if (--implicitWaitSuspensions == 0) {
+                driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(ConfigLoader.getImplicitWait()));
+            }
+        }
+    }
+    
     /**
      * Finds all elements matching the locator.
      */
     protected List<WebElement> findElements(By locator) {
-        return driver.findElements(locator);
+        activate();
+        return driver.findElements(LocatorRewriter.resolve(locator));
+    }
+    
+    /**
+     * Gets the text of every element matching the locator, in screen order.
+     * Served from the page snapshot when enabled, otherwise one getText per element.
+     */
+    protected List<String> findTexts(By locator) {
+        List<String> texts = new ArrayList<>();
+        List<PageSnapshot.SnapshotNode> nodes = snapshotMatches(locator);
+        if (!nodes.isEmpty()) {
+            for (PageSnapshot.SnapshotNode node : nodes) {
+                texts.add(node.getText());
+            }
+            return texts;
+        }
+        for (WebElement element : findElements(locator)) {
+            texts.add(element.getText());
+        }
+        return texts;
     }
     
     /**
      * Scrolls down to find an element using UiScrollable.
      */
     protected void scrollToText(String text) {
-        System.out.println("[PAGE] Scrolling to text: " + text);
+        log.debug("Scrolling to text: {}", text);
+        activate();
         driver.findElement(AppiumBy.androidUIAutomator(
-            "new UiScrollable(new UiSelector().scrollable(true)).scrollIntoView(" +
-            "new UiSelector().textContains(\"" + text + "\"))"));
+            SCROLL_INTO_VIEW + "new UiSelector().textContains(\"" + text + "\"))"));
+        invalidateSnapshot();
     }
     
     /**
      * Scrolls down the page.
      */
     protected void scrollDown() {
-        System.out.println("[PAGE] Scrolling down...");
-        driver.findElement(AppiumBy.androidUIAutomator(
-            "new UiScrollable(new UiSelector().scrollable(true)).scrollForward()"));
+        log.debug("Scrolling down...");
+        activate();
+        driver.findElement(SCROLL_FORWARD);
+        invalidateSnapshot();
     }
     
     /**
      * Gets an attribute value from an element.
      */
     protected String getAttribute(By locator, String attribute) {
-        WebElement element = waitForElement(locator);
-        return element.getAttribute(attribute);
+        return elementCache.with(locator, this::waitForElement, element -> element.getAttribute(attribute));
     }
 }
@@ -0,0 +1,141 @@
+package com.saucelab.pages;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Differences between the expected cart and the cart on screen, by product name:
+ * lines that are missing, lines nobody added, and lines whose quantity or price is wrong.
+ */
+public final class CartDiff {
+    
+    private final List<CartLine> missing;
+    private final List<CartLine> unexpected;
+    private final List<Mismatch> wrongQuantity;
+    private final List<Mismatch> wrongPrice;
+    
+    private CartDiff(List<CartLine> missing, List<CartLine> unexpected,
+                     List<Mismatch> wrongQuantity, List<Mismatch> wrongPrice) {
+        this.missing = Collections.unmodifiableList(missing);
+        this.unexpected = Collections.unmodifiableList(unexpected);
+        this.wrongQuantity = Collections.unmodifiableList(wrongQuantity);
+        this.wrongPrice = Collections.unmodifiableList(wrongPrice);
+    }
+    
+    /**
+     * Compares two carts line by line, matching lines by product name.
+     * @param expected The lines that should be in the cart
+     * @param actual The lines on screen
+     * @return The differences
+     */
+    public static CartDiff between(List<CartLine> expected, List<CartLine> actual) {
+        Map<String, CartLine> remaining = new LinkedHashMap<>();
+        for (CartLine line : actual) {
+            remaining.merge(line.getName(), line,
+                (a, b) -> new CartLine(a.getName(), a.getQuantity() + b.getQuantity(), a.getPrice()));
+        }
+        List<CartLine> missing = new ArrayList<>();
+        List<Mismatch> wrongQuantity = new ArrayList<>();
+        List<Mismatch> wrongPrice = new ArrayList<>();
+        for (CartLine want : expected) {
+            CartLine got = remaining.remove(want.getName());
+            if (got == null) {
+                missing.add(want);
+                continue;
+            }
+            if (got.getQuantity() != want.getQuantity()) {
+                wrongQuantity.add(new Mismatch(want.getName(),
+                    String.valueOf(want.getQuantity()), String.valueOf(got.getQuantity())));
+            }
+            if (want.getPrice() != null && !Objects.equals(want.getPrice(), got.getPrice())) {
+                wrongPrice.add(new Mismatch(want.getName(), String.valueOf(want.getPrice()), String.valueOf(got.getPrice())));
+            }
+        }
+        return new CartDiff(missing, new ArrayList<>(remaining.values()), wrongQuantity, wrongPrice);
+    }
+    
+    public boolean isEmpty() {
+        return missing.isEmpty() && unexpected.isEmpty() && wrongQuantity.isEmpty() && wrongPrice.isEmpty();
+    }
+    
+    /**
+     * @return Expected lines with no line of the same name on screen
+     */
+    public List<CartLine> getMissing() {
+        return missing;
+    }
+    
+    /**
+     * @return Lines on screen that were not expected
+     */
+    public List<CartLine> getUnexpected() {
+        return unexpected;
+    }
+    
+    public List<Mismatch> getWrongQuantity() {
+        return wrongQuantity;
+    }
+    
+    public List<Mismatch> getWrongPrice() {
+        return wrongPrice;
+    }
+    
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "cart matches";
+        }
+        StringBuilder text = new StringBuilder();
+        append(text, "missing", missing);
+        append(text, "unexpected", unexpected);
+        append(text, "wrong quantity", wrongQuantity);
+        append(text, "wrong price", wrongPrice);
+        return text.toString();
+    }
+    
+    private static void append(StringBuilder text, String label, List<?> entries) {
+        if (!entries.isEmpty()) {
+            if (text.length() > 0) {
+                text.append("; ");
+            }
+            text.append(label).append(": ").append(entries);
+        }
+    }
+    
+    /**
+     * One line whose expected and actual value differ.
+     */
+    public static final class Mismatch {
+        
+        private final String name;
+        private final String expected;
+        private final String actual;
+        
+        Mismatch(String name, String expected, String actual) {
+            this.name = name;
+            this.expected = expected;
+            this.actual = actual;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public String getExpected() {
+            return expected;
+        }
+        
+        public String getActual() {
+            return actual;
+        }
+        
+        @Override
+        public String toString() {
+            return name + " expected " + expected + " but was " + actual;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.saucelab.pages;
+
+import java.util.Objects;
+
+/**
+ * Immutable view of one cart line: product name, quantity and unit price.
+ */
+public final class CartLine {
+    
+    private final String name;
+    private final int quantity;
+    private final Money price;
+    
+    public CartLine(String name, int quantity, Money price) {
+        this.name = name;
+        this.quantity = quantity;
+        this.price = price;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getQuantity() {
+        return quantity;
+    }
+    
+    /**
+     * @return The unit price, or null if it was missing or unreadable
+     */
+    public Money getPrice() {
+        return price;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CartLine)) return false;
+        CartLine that = (CartLine) o;
+        return quantity == that.quantity
+            && Objects.equals(name, that.name)
+            && Objects.equals(price, that.price);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, quantity, price);
+    }
+    
+    @Override
+    public String toString() {
+        return quantity + " x " + name + " " + price;
+    }
+}
@@ -1,14 +1,21 @@
 package com.saucelab.pages;
 
+import com.saucelab.driver.DriverContext;
 import io.appium.java_client.AppiumBy;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 
 public class CartPage extends BasePage {
     
+    private static final Logger log = LoggerFactory.getLogger(CartPage.class);
+    
     // Locators for Cart Page elements
     private final By cartTitle = By.xpath("//android.widget.TextView[@text='YOUR CART']");
     private final By cartItems = AppiumBy.accessibilityId("test-Item");
@@ -21,7 +28,12 @@ public class CartPage extends BasePage {
     
     public CartPage() {
         super();
-        System.out.println("[CART PAGE] Initialized");
+        log.debug("Initialized");
+    }
+    
+    public CartPage(DriverContext context) {
+        super(context);
+        log.debug("Initialized on {}", context);
     }
     
     /**
@@ -29,9 +41,9 @@ public class CartPage extends BasePage {
      * @return true if Cart title is visible
      */
     public boolean isCartPageDisplayed() {
-        System.out.println("[CART PAGE] Checking if Cart page is displayed");
+        log.debug("Checking if Cart page is displayed");
         try {
-            return isDisplayed(cartTitle);
+            return isPresent(cartTitle);
         } catch (Exception e) {
             return false;
         }
@@ -44,16 +56,19 @@ public class CartPage extends BasePage {
     public int getCartItemCount() {
         List<WebElement> items = findElements(cartItems);
         int count = items.size();
-        System.out.println("[CART PAGE] Cart item count: " + count);
+        log.debug("Cart item count: {}", count);
         return count;
     }
     
     /**
      * Checks if the cart is empty.
+     * Uses a fast absence check instead of a find that waits out the implicit wait.
      * @return true if cart has no items
      */
     public boolean isCartEmpty() {
-        return getCartItemCount() == 0;
+        boolean empty = isAbsent(cartItems);
+        log.debug("Cart empty: {}", empty);
+        return empty;
     }
     
     /**
@@ -67,7 +82,7 @@ public class CartPage extends BasePage {
         if (!itemNames.isEmpty()) {
             String name = itemNames.get(0).getText();
             if (name != null && !name.isEmpty()) {
-                System.out.println("[CART PAGE] First item name: " + name);
+                log.debug("First item name: {}", name);
                 return name;
             }
         }
@@ -80,15 +95,15 @@ public class CartPage extends BasePage {
                 String text = tv.getText();
                 // Skip price and quantity, return the product name
                 if (text != null && !text.isEmpty() && !text.startsWith("$") && !text.matches("\\d+")) {
-                    System.out.println("[CART PAGE] First item name (from TextView): " + text);
+                    log.debug("First item name (from TextView): {}", text);
                     return text;
                 }
             }
         } catch (Exception e) {
-            System.out.println("[CART PAGE] Could not find item name from TextView: " + e.getMessage());
+            log.debug("Could not find item name from TextView: {}", e.getMessage());
         }
         
-        System.out.println("[CART PAGE] Could not find item name");
+        log.debug("Could not find item name");
         return null;
     }
     
@@ -98,7 +113,7 @@ public class CartPage extends BasePage {
      * @return true if the product is found in cart
      */
     public boolean isProductInCart(String productName) {
-        System.out.println("[CART PAGE] Checking if product is in cart: " + productName);
+        log.debug("Checking if product is in cart: {}", productName);
         By productLocator = By.xpath(String.format("//android.widget.TextView[@text='%s']", productName));
         return isDisplayed(productLocator);
     }
@@ -109,10 +124,10 @@ public class CartPage extends BasePage {
      * @return The item name
      */
     public String getItemNameAtIndex(int index) {
-        List<WebElement> itemNames = findElements(cartItemName);
+        List<String> itemNames = findTexts(cartItemName);
         if (index < itemNames.size()) {
-            String name = itemNames.get(index).getText();
-            System.out.println("[CART PAGE] Item name at index " + index + ": " + name);
+            String name = itemNames.get(index);
+            log.debug("Item name at index {}: {}", index, name);
             return name;
         }
         return null;
@@ -123,10 +138,10 @@ public class CartPage extends BasePage {
      * @return The item price (e.g., "$29.99")
      */
     public String getFirstItemPrice() {
-        List<WebElement> itemPrices = findElements(cartItemPrice);
+        List<String> itemPrices = findTexts(cartItemPrice);
         if (!itemPrices.isEmpty()) {
-            String price = itemPrices.get(0).getText();
-            System.out.println("[CART PAGE] First item price: " + price);
+            String price = itemPrices.get(0);
+            log.debug("First item price: {}", price);
             return price;
         }
         return null;
@@ -138,27 +153,79 @@ public class CartPage extends BasePage {
      * @return The item price
      */
     public String getItemPriceAtIndex(int index) {
-        List<WebElement> itemPrices = findElements(cartItemPrice);
+        List<String> itemPrices = findTexts(cartItemPrice);
         if (index < itemPrices.size()) {
-            String price = itemPrices.get(index).getText();
-            System.out.println("[CART PAGE] Item price at index " + index + ": " + price);
+            String price = itemPrices.get(index);
+            log.debug("Item price at index {}: {}", index, price);
             return price;
         }
         return null;
     }
     
+    /**
+     * Reads every cart line from a single page source snapshot.
+     * Costs one getPageSource call (plus one wait if the cart has not rendered yet)
+     * regardless of how many lines the cart has.
+     * @return Immutable list of lines in screen order
+     */
+    public List<CartLine> getCartLines() {
+        PageSnapshot snapshot = snapshot();
+        if (snapshot.find(cartTitle).isEmpty()) {
+            // Cart screen not rendered yet - wait for the title and read again
+            invalidateSnapshot();
+            waitForElement(cartTitle);
+            snapshot = snapshot();
+        }
+        List<CartLine> lines = new ArrayList<>();
+        for (PageSnapshot.SnapshotNode item : snapshot.find(cartItems)) {
+            String name = item.findDescendantText(cartItemName);
+            lines.add(new CartLine(name, readQuantity(item, name),
+                Money.parseOrNull(item.findDescendantText(cartItemPrice))));
+        }
+        log.debug("Read {} cart lines", lines.size());
+        return Collections.unmodifiableList(lines);
+    }
+    
+    /**
+     * Reads a cart line's quantity from the text node inside its test-Amount container.
+     * @throws IllegalStateException if the quantity is missing or not a number, so a wrong
+     *     quantity cannot hide behind a default
+     */
+    private int readQuantity(PageSnapshot.SnapshotNode item, String name) {
+        List<PageSnapshot.SnapshotNode> amount = item.findDescendants(cartItemQuantity);
+        String text = amount.isEmpty() ? null : amount.get(0).getLeafText();
+        if (text == null || !text.trim().matches("\\d+")) {
+            throw new IllegalStateException("Cannot read the quantity of cart line '" + name + "': " + text);
+        }
+        return Integer.parseInt(text.trim());
+    }
+    
+    /**
+     * Compares the cart on screen with the cart the page actions of this session expect
+     * ({@link ExpectedCart}), in one read of the cart screen.
+     * @return Missing, unexpected, wrong-quantity and wrong-price lines; empty if the cart matches
+     */
+    public CartDiff verifyExpectedCart() {
+        CartDiff diff = ExpectedCart.of(context).diff(getCartLines());
+        log.debug("Cart verification: {}", diff);
+        return diff;
+    }
+    
     /**
      * Removes the first item from the cart.
      * @return CartPage instance
      */
     public CartPage removeFirstItem() {
-        System.out.println("[CART PAGE] Removing first item from cart");
+        log.debug("Removing first item from cart");
+        String name = getItemNameAtIndex(0);
         List<WebElement> removeButtons = findElements(removeButton);
         if (!removeButtons.isEmpty()) {
             removeButtons.get(0).click();
-            System.out.println("[CART PAGE] Item removed successfully");
+            invalidateSnapshot();
+            ExpectedCart.of(context).remove(name);
+            log.debug("Item removed successfully");
         } else {
-            System.out.println("[CART PAGE] No remove button found");
+            log.debug("No remove button found");
         }
         return this;
     }
@@ -169,11 +236,14 @@ public class CartPage extends BasePage {
      * @return CartPage instance
      */
     public CartPage removeItemAtIndex(int index) {
-        System.out.println("[CART PAGE] Removing item at index: " + index);
+        log.debug("Removing item at index: {}", index);
+        String name = getItemNameAtIndex(index);
         List<WebElement> removeButtons = findElements(removeButton);
         if (index < removeButtons.size()) {
             removeButtons.get(index).click();
-            System.out.println("[CART PAGE] Item at index " + index + " removed");
+            invalidateSnapshot();
+            ExpectedCart.of(context).remove(name);
+            log.debug("Item at index {} removed", index);
         }
         return this;
     }
@@ -183,9 +253,9 @@ public class CartPage extends BasePage {
      * @return ProductsPage instance
      */
     public ProductsPage continueShopping() {
-        System.out.println("[CART PAGE] Continuing shopping");
+        log.debug("Continuing shopping");
         click(continueShoppingButton);
-        return new ProductsPage();
+        return new ProductsPage(context);
     }
     
     /**
@@ -193,7 +263,7 @@ public class CartPage extends BasePage {
      * Note: Checkout flow is not implemented in this basic version.
      */
     public void checkout() {
-        System.out.println("[CART PAGE] Proceeding to checkout");
+        log.debug("Proceeding to checkout");
         click(checkoutButton);
     }
     
@@ -203,14 +273,14 @@ public class CartPage extends BasePage {
      * @return true if item is found in cart
      */
     public boolean isItemInCart(String expectedName) {
-        List<WebElement> itemNames = findElements(cartItemName);
-        for (WebElement item : itemNames) {
-            if (item.getText().equals(expectedName)) {
-                System.out.println("[CART PAGE] Found item in cart: " + expectedName);
+        List<String> itemNames = findTexts(cartItemName);
+        for (String item : itemNames) {
+            if (item.equals(expectedName)) {
+                log.debug("Found item in cart: {}", expectedName);
                 return true;
             }
         }
-        System.out.println("[CART PAGE] Item not found in cart: " + expectedName);
+        log.debug("Item not found in cart: {}", expectedName);
         return false;
     }
 }
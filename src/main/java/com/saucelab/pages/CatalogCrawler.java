@@ -0,0 +1,117 @@
+package com.saucelab.pages;
+
+import com.saucelab.config.ConfigLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Walks the whole product list in one pass: reads the visible tiles, scrolls one step,
+ * and keeps only the tiles it has not seen before (by name, or by bounds for tiles without
+ * a name). Each new product is handed to the consumer as soon as it is revealed, and the
+ * crawl stops at the first scroll that reveals nothing new.
+ */
+public class CatalogCrawler {
+    
+    private static final Logger log = LoggerFactory.getLogger(CatalogCrawler.class);
+    
+    private final ProductsPage page;
+    private final int maxScrolls;
+    
+    public CatalogCrawler(ProductsPage page) {
+        this(page, ConfigLoader.getCatalogMaxScrolls());
+    }
+    
+    public CatalogCrawler(ProductsPage page, int maxScrolls) {
+        this.page = page;
+        this.maxScrolls = maxScrolls;
+    }
+    
+    /**
+     * Crawls from the current scroll position to the end of the list.
+     * The tiles passed to the consumer are indexed in catalog order; their bounds are
+     * the on-screen bounds at the moment the tile was first seen.
+     * @param consumer Receives every newly revealed product, in catalog order
+     * @return All products seen, the number of scrolls and the crawl time
+     */
+    public CrawlResult crawl(Consumer<ProductTile> consumer) {
+        long started = System.nanoTime();
+        Map<String, ProductTile> seen = new LinkedHashMap<>();
+        int scrolls = 0;
+        
+        int revealed = collect(page.getVisibleProducts(), seen, consumer);
+        while (revealed > 0 && scrolls < maxScrolls) {
+            page.scrollDown();
+            scrolls++;
+            revealed = collect(page.getVisibleProducts(), seen, consumer);
+            log.debug("Scroll {} revealed {} new product(s)", scrolls, revealed);
+        }
+        if (revealed > 0) {
+            log.warn("Stopped crawling after {} scrolls with products still appearing", maxScrolls);
+        }
+        
+        CrawlResult result = new CrawlResult(new ArrayList<>(seen.values()), scrolls,
+            (System.nanoTime() - started) / 1_000_000);
+        log.info("Crawled catalog: {}", result);
+        return result;
+    }
+    
+    private static int collect(List<ProductTile> visible, Map<String, ProductTile> seen, Consumer<ProductTile> consumer) {
+        int revealed = 0;
+        for (ProductTile tile : visible) {
+            String key = tile.getName() != null ? tile.getName() : "@" + tile.getBounds();
+            if (!seen.containsKey(key)) {
+                ProductTile indexed = new ProductTile(seen.size(), tile.getName(), tile.getPrice(), tile.getBounds());
+                seen.put(key, indexed);
+                consumer.accept(indexed);
+                revealed++;
+            }
+        }
+        return revealed;
+    }
+    
+    /**
+     * Outcome of one crawl.
+     */
+    public static final class CrawlResult {
+        
+        private final List<ProductTile> products;
+        private final int scrollCount;
+        private final long elapsedMillis;
+        
+        CrawlResult(List<ProductTile> products, int scrollCount, long elapsedMillis) {
+            this.products = Collections.unmodifiableList(products);
+            this.scrollCount = scrollCount;
+            this.elapsedMillis = elapsedMillis;
+        }
+        
+        /**
+         * @return Every distinct product seen, in catalog order
+         */
+        public List<ProductTile> getProducts() {
+            return products;
+        }
+        
+        /**
+         * @return Number of scrolls, including the final one that revealed nothing new
+         */
+        public int getScrollCount() {
+            return scrollCount;
+        }
+        
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+        
+        @Override
+        public String toString() {
+            return products.size() + " product(s) in " + scrollCount + " scroll(s), " + elapsedMillis + " ms";
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.saucelab.pages;
+
+import com.saucelab.config.ConfigLoader;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Waits for the first of several named outcomes, e.g. "products" or "error" after tapping Login.
+ * Each poll fetches the page source once and checks every outcome against it; locators a page
+ * snapshot cannot evaluate fall back to a non-waiting find. The interval between polls starts at
+ * wait.poll.initial.ms and grows by wait.poll.backoff per poll up to wait.poll.max.ms, so fast
+ * transitions are seen quickly and slow ones do not flood the server.
+ *
+ * <pre>
+ * String outcome = waitForAny()
+ *     .on("products", productsTitle)
+ *     .on("error", errorMessage)
+ *     .await();
+ * </pre>
+ */
+public class CompositeWait {
+    
+    private static final Logger log = LoggerFactory.getLogger(CompositeWait.class);
+    
+    private final AndroidDriver driver;
+    private final Predicate<By> displayedNow;
+    private final Function<Supplier<String>, String> withoutImplicitWait;
+    private final Map<String, By> outcomes = new LinkedHashMap<>();
+    private Duration timeout = Duration.ofSeconds(ConfigLoader.getExplicitWait());
+    private long initialPollMillis = ConfigLoader.getWaitPollInitialMillis();
+    private long maxPollMillis = ConfigLoader.getWaitPollMaxMillis();
+    private double backoff = ConfigLoader.getWaitPollBackoff();
+    
+    /**
+     * @param driver The session to poll
+     * @param displayedNow Visibility check for locators a snapshot cannot evaluate; expects the
+     *     implicit wait to be suspended
+     * @param withoutImplicitWait Runs the whole wait with the implicit wait suspended
+     */
+    CompositeWait(AndroidDriver driver, Predicate<By> displayedNow,
+                  Function<Supplier<String>, String> withoutImplicitWait) {
+        this.driver = driver;
+        this.displayedNow = displayedNow;
+        this.withoutImplicitWait = withoutImplicitWait;
+    }
+    
+    /**
+     * Adds an outcome that happens when the locator matches a displayed element.
+     * Outcomes are checked in the order they were added, so list the most specific first.
+     * @param name Returned by {@link #await()} when this outcome happens first
+     * @param locator The element that signals the outcome
+     * @return this wait for chaining
+     */
+    public CompositeWait on(String name, By locator) {
+        outcomes.put(name, locator);
+        return this;
+    }
+    
+    public CompositeWait withTimeout(Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+    
+    /**
+     * Overrides the adaptive polling for this wait.
+     * @param initialMillis Interval after the first poll
+     * @param maxMillis Upper bound for the interval
+     * @param backoff Factor applied to the interval after each poll (1 = fixed interval)
+     * @return this wait for chaining
+     */
+    public CompositeWait withPolling(long initialMillis, long maxMillis, double backoff) {
+        this.initialPollMillis = initialMillis;
+        this.maxPollMillis = maxMillis;
+        this.backoff = backoff;
+        return this;
+    }
+    
+    /**
+     * Polls until one of the outcomes happens. If any outcome needs a live find, the implicit
+     * wait is suspended once for the whole wait, not per poll.
+     * @return The name of the first outcome seen
+     * @throws TimeoutException if none happened within the timeout
+     */
+    public String await() {
+        if (outcomes.isEmpty()) {
+            throw new IllegalStateException("No outcomes to wait for");
+        }
+        boolean liveFinds = outcomes.values().stream().anyMatch(locator -> !PageSnapshot.supports(locator));
+        return liveFinds ? withoutImplicitWait.apply(this::pollUntilOutcome) : pollUntilOutcome();
+    }
+    
+    private String pollUntilOutcome() {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        double interval = initialPollMillis;
+        int polls = 0;
+        while (true) {
+            polls++;
+            String outcome = poll();
+            if (outcome != null) {
+                log.debug("Outcome '{}' after {} poll(s), {} ms", outcome, polls, (System.nanoTime() - start) / 1_000_000);
+                return outcome;
+            }
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMillis <= 0) {
+                throw new TimeoutException("None of " + outcomes.keySet() + " happened within "
+                    + timeout.toMillis() + " ms (" + polls + " polls)");
+            }
+            try {
+                Thread.sleep(Math.min((long) interval, remainingMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TimeoutException("Interrupted while waiting for " + outcomes.keySet(), e);
+            }
+            interval = Math.min(maxPollMillis, interval * backoff);
+        }
+    }
+    
+    private String poll() {
+        PageSnapshot snapshot = null;
+        for (Map.Entry<String, By> outcome : outcomes.entrySet()) {
+            By locator = outcome.getValue();
+            boolean happened;
+            if (PageSnapshot.supports(locator)) {
+                if (snapshot == null) {
+                    snapshot = PageSnapshot.parse(driver.getPageSource());
+                }
+                happened = snapshot.find(locator).stream().anyMatch(PageSnapshot.SnapshotNode::isDisplayed);
+            } else {
+                happened = displayedNow.test(locator);
+            }
+            if (happened) {
+                return outcome.getKey();
+            }
+        }
+        return null;
+    }
+}
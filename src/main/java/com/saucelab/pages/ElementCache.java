@@ -0,0 +1,103 @@
+package com.saucelab.pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Per-page cache of located elements keyed by locator.
+ * A cached element is reused until an action on it throws {@link StaleElementReferenceException},
+ * in which case it is found again once. Hit/miss/stale counts are kept per page and suite-wide.
+ */
+public class ElementCache {
+    
+    private static final LongAdder TOTAL_HITS = new LongAdder();
+    private static final LongAdder TOTAL_MISSES = new LongAdder();
+    private static final LongAdder TOTAL_STALE = new LongAdder();
+    
+    // Page objects are confined to one thread, so a plain map is enough
+    private final Map<By, WebElement> elements = new HashMap<>();
+    private long hits;
+    private long misses;
+    private long stale;
+    
+    /**
+     * Runs an action on the element for the locator, finding it only when it is not cached
+     * or the cached handle turned stale.
+     * @param locator The element locator
+     * @param finder How to locate (and wait for) the element on a miss
+     * @param action The action to run on the element
+     * @return The action result
+     */
+    public <T> T with(By locator, Function<By, WebElement> finder, Function<WebElement, T> action) {
+        WebElement element = elements.get(locator);
+        if (element == null) {
+            element = miss(locator, finder);
+        } else {
+            hits++;
+            TOTAL_HITS.increment();
+        }
+        try {
+            return action.apply(element);
+        } catch (StaleElementReferenceException e) {
+            stale++;
+            TOTAL_STALE.increment();
+            return action.apply(miss(locator, finder));
+        }
+    }
+    
+    private WebElement miss(By locator, Function<By, WebElement> finder) {
+        misses++;
+        TOTAL_MISSES.increment();
+        WebElement element = finder.apply(locator);
+        elements.put(locator, element);
+        return element;
+    }
+    
+    /**
+     * Forgets the cached element for a locator, e.g. after clicking it changed its state.
+     */
+    public void evict(By locator) {
+        elements.remove(locator);
+    }
+    
+    /**
+     * Forgets all cached elements.
+     */
+    public void clear() {
+        elements.clear();
+    }
+    
+    public long getHits() {
+        return hits;
+    }
+    
+    public long getMisses() {
+        return misses;
+    }
+    
+    public long getStaleRefinds() {
+        return stale;
+    }
+    
+    /**
+     * Gets suite-wide cache statistics across all pages and threads.
+     * @return Summary such as "hits=12 misses=30 stale=1 (finds saved: 11)"
+     */
+    public static String globalStats() {
+        long totalHits = TOTAL_HITS.sum();
+        long totalStale = TOTAL_STALE.sum();
+        return "hits=" + totalHits + " misses=" + TOTAL_MISSES.sum() + " stale=" + totalStale
+            + " (finds saved: " + (totalHits - totalStale) + ")";
+    }
+    
+    @Override
+    public String toString() {
+        return "hits=" + hits + " misses=" + misses + " stale=" + stale;
+    }
+}
@@ -0,0 +1,79 @@
+package com.saucelab.pages;
+
+import com.saucelab.driver.DriverContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What the cart of one session should contain, kept up to date by the page actions that
+ * change it (adding on the details page, removing on the details or cart page). Lines are
+ * kept in the order they were added and matched with the screen by product name.
+ * {@link CartPage#verifyExpectedCart()} compares it with the real cart in one read.
+ */
+public final class ExpectedCart {
+    
+    private static final Logger log = LoggerFactory.getLogger(ExpectedCart.class);
+    
+    private final Map<String, CartLine> lines = new LinkedHashMap<>();
+    
+    /**
+     * Gets the expected cart of a session, creating an empty one on first use.
+     */
+    public static ExpectedCart of(DriverContext context) {
+        return context.attachment(ExpectedCart.class, ExpectedCart::new);
+    }
+    
+    /**
+     * Records one more unit of a product.
+     * @param name The product name
+     * @param price The unit price, or null if it was not read (a price already known for the
+     *     product is kept; if none is, the price is not checked)
+     */
+    public synchronized void add(String name, Money price) {
+        CartLine line = lines.get(name);
+        if (line == null) {
+            lines.put(name, new CartLine(name, 1, price));
+        } else {
+            lines.put(name, new CartLine(name, line.getQuantity() + 1, price != null ? price : line.getPrice()));
+        }
+        log.debug("Expected cart: added {}, now {}", name, lines.values());
+    }
+    
+    /**
+     * Records that a product's line was removed. Lines are matched by name, so the
+     * expected cart stays right even if the screen lists them in another order.
+     * @param name The product name, or null if it could not be read (nothing is removed)
+     */
+    public synchronized void remove(String name) {
+        if (name == null || lines.remove(name) == null) {
+            log.debug("Expected cart: {} was not expected", name);
+            return;
+        }
+        log.debug("Expected cart: removed {}, now {}", name, lines.values());
+    }
+    
+    public synchronized void clear() {
+        lines.clear();
+    }
+    
+    /**
+     * @return The expected lines in cart order
+     */
+    public synchronized List<CartLine> getLines() {
+        return new ArrayList<>(lines.values());
+    }
+    
+    /**
+     * Compares the expected lines with the lines read from the cart screen.
+     * @param actual The lines on screen
+     * @return Every difference; empty if the cart matches
+     */
+    public CartDiff diff(List<CartLine> actual) {
+        return CartDiff.between(getLines(), actual);
+    }
+}
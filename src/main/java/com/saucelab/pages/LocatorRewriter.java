@@ -0,0 +1,113 @@
+package com.saucelab.pages;
+
+import com.saucelab.config.ConfigLoader;
+import com.saucelab.metrics.LocatorMetrics;
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns simple XPath locators into equivalent UiSelector locators, which UiAutomator2
+ * resolves without dumping the whole view hierarchy. Only XPaths of the form
+ * {@code //class[predicate and ...]} are rewritten, where each predicate compares
+ * {@code @text} or {@code @content-desc} with {@code =}, {@code contains()} or
+ * {@code starts-with()}. Anything with an axis, a path step, an index or a value the
+ * selector cannot quote is left as XPath.
+ *
+ * <p>Until {@link LocatorMetrics} has recorded {@code locator.rewrite.calibration} XPath finds
+ * of a rewritten locator, it is still sent as XPath so the report can show the time saved
+ * against it. Finds are counted rather than calls to {@link #resolve(By)}, because one
+ * resolved locator is polled many times by a wait. Off by default; enable with locator.rewrite=true.
+ */
+public final class LocatorRewriter {
+    
+    private static final Logger log = LoggerFactory.getLogger(LocatorRewriter.class);
+    
+    private static final Pattern SIMPLE_XPATH =
+        Pattern.compile("//([\\w.]+|\\*)\\[(.+)]");
+    private static final Pattern PREDICATE = Pattern.compile(
+        "@(text|content-desc)\\s*=\\s*'([^']*)'"
+        + "|(contains|starts-with)\\(\\s*@(text|content-desc)\\s*,\\s*'([^']*)'\\s*\\)");
+    
+    // XPath string -> selector, or empty if it cannot be rewritten
+    private static final ConcurrentMap<String, Optional<By>> REWRITES = new ConcurrentHashMap<>();
+    
+    private LocatorRewriter() {
+        // Utility class
+    }
+    
+    /**
+     * Gets the locator to send to the driver for a page-object locator.
+     * @param locator The locator as declared by the page
+     * @return An equivalent UiSelector locator, or the locator itself
+     */
+    public static By resolve(By locator) {
+        if (!ConfigLoader.isLocatorRewriteEnabled()) {
+            return locator;
+        }
+        String xpath = xpathOf(locator);
+        if (xpath == null) {
+            return locator;
+        }
+        Optional<By> rewritten = REWRITES.computeIfAbsent(xpath, LocatorRewriter::rewrite);
+        if (!rewritten.isPresent()) {
+            return locator;
+        }
+        boolean calibrating = ConfigLoader.isCommandMetricsEnabled()
+            && LocatorMetrics.findCount("xpath=" + xpath) < ConfigLoader.getLocatorRewriteCalibration();
+        return calibrating ? locator : rewritten.get();
+    }
+    
+    /**
+     * Rewrites one XPath expression, or returns empty if that is not known to be safe.
+     */
+    static Optional<By> rewrite(String xpath) {
+        Matcher step = SIMPLE_XPATH.matcher(xpath.trim());
+        if (!step.matches()) {
+            return Optional.empty();
+        }
+        StringBuilder selector = new StringBuilder("new UiSelector()");
+        if (!"*".equals(step.group(1))) {
+            selector.append(".className(\"").append(step.group(1)).append("\")");
+        }
+        for (String predicate : step.group(2).split("\\s+and\\s+")) {
+            Matcher p = PREDICATE.matcher(predicate.trim());
+            if (!p.matches()) {
+                return Optional.empty();
+            }
+            String method;
+            String value;
+            if (p.group(1) != null) {
+                method = "text".equals(p.group(1)) ? "text" : "description";
+                value = p.group(2);
+            } else {
+                method = ("text".equals(p.group(4)) ? "text" : "description")
+                    + ("contains".equals(p.group(3)) ? "Contains" : "StartsWith");
+                value = p.group(5);
+            }
+            if (value.contains("\"") || value.contains("\\")) {
+                return Optional.empty();
+            }
+            selector.append('.').append(method).append("(\"").append(value).append("\")");
+        }
+        By rewritten = AppiumBy.androidUIAutomator(selector.toString());
+        LocatorMetrics.registerRewrite("xpath=" + xpath, "-android uiautomator=" + selector);
+        log.debug("Rewrote {} to {}", xpath, selector);
+        return Optional.of(rewritten);
+    }
+    
+    private static String xpathOf(By locator) {
+        if (!(locator instanceof By.Remotable)) {
+            return null;
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        return "xpath".equals(parameters.using()) ? String.valueOf(parameters.value()) : null;
+    }
+}
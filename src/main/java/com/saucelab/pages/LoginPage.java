@@ -1,20 +1,59 @@
 package com.saucelab.pages;
 
+import com.saucelab.config.ConfigLoader;
+import com.saucelab.driver.DriverContext;
+import com.saucelab.metrics.LoginMetrics;
 import io.appium.java_client.AppiumBy;
 import org.openqa.selenium.By;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public class LoginPage extends BasePage {
     
+    private static final Logger log = LoggerFactory.getLogger(LoginPage.class);
+    
     // Locators for Login Page elements
     private final By usernameField = AppiumBy.accessibilityId("test-Username");
     private final By passwordField = AppiumBy.accessibilityId("test-Password");
     private final By loginButton = AppiumBy.accessibilityId("test-LOGIN");
     private final By errorMessage = AppiumBy.accessibilityId("test-Error message");
+    private final By errorText = By.xpath("//*[@content-desc='test-Error message']//android.widget.TextView");
+    // First element of the Products page, the other outcome of tapping Login
+    private final By productsTitle = By.xpath("//android.widget.TextView[@text='PRODUCTS']");
+    
+    /** Outcome of {@link #submit()} when the Products page appears. */
+    public static final String OUTCOME_PRODUCTS = "products";
+    /** Outcome of {@link #submit()} when the login form shows an error. */
+    public static final String OUTCOME_ERROR = "error";
+    
+    private static final String UI_PATH = "ui";
+    private static final Map<String, LoginStrategy> STRATEGIES = new ConcurrentHashMap<>();
+    
+    static {
+        registerStrategy(new DeepLinkLoginStrategy());
+    }
+    
+    private String lastLoginPath;
     
     public LoginPage() {
         super();
-        System.out.println("[LOGIN PAGE] Initialized");
+        log.debug("Initialized");
+    }
+    
+    public LoginPage(DriverContext context) {
+        super(context);
+        log.debug("Initialized on {}", context);
+    }
+    
+    // Typing triggers keyboard animations that would otherwise hold every command until idle
+    @Override
+    protected String settingsProfileName() {
+        return "typing";
     }
     
     /**
@@ -23,7 +62,7 @@ public class LoginPage extends BasePage {
      * @return LoginPage instance for method chaining
      */
     public LoginPage enterUsername(String username) {
-        System.out.println("[LOGIN PAGE] Entering username: " + username);
+        log.debug("Entering username: {}", username);
         type(usernameField, username);
         return this;
     }
@@ -34,7 +73,7 @@ public class LoginPage extends BasePage {
      * @return LoginPage instance for method chaining
      */
     public LoginPage enterPassword(String password) {
-        System.out.println("[LOGIN PAGE] Entering password: ****");
+        log.debug("Entering password: ****");
         type(passwordField, password);
         return this;
     }
@@ -44,21 +83,98 @@ public class LoginPage extends BasePage {
      * @return ProductsPage instance after successful login
      */
     public ProductsPage tapLogin() {
-        System.out.println("[LOGIN PAGE] Tapping Login button");
+        log.debug("Tapping Login button");
+        click(loginButton);
+        return new ProductsPage(context);
+    }
+    
+    /**
+     * Taps the Login button and waits for whichever comes first: the Products page or an
+     * error message on the form. Both are checked on every poll, so a rejected login
+     * returns as soon as the error shows instead of after the full explicit wait.
+     * @return {@link #OUTCOME_PRODUCTS} or {@link #OUTCOME_ERROR}
+     * @throws org.openqa.selenium.TimeoutException if neither appears within the explicit wait
+     */
+    public String submit() {
+        log.debug("Tapping Login button and waiting for the outcome");
         click(loginButton);
-        return new ProductsPage();
+        String outcome = waitForAny()
+            .on(OUTCOME_ERROR, errorMessage)
+            .on(OUTCOME_PRODUCTS, productsTitle)
+            .await();
+        log.debug("Login outcome: {}", outcome);
+        return outcome;
+    }
+    
+    /**
+     * Gets the error shown on the login form.
+     * @return The error text, or null if no error is shown
+     */
+    public String getErrorMessage() {
+        List<String> texts = findTexts(errorText);
+        return texts.isEmpty() ? null : texts.get(0);
     }
     
     /**
      * Performs complete login flow with provided credentials.
+     * With login.strategy set to a fast path (e.g. "deeplink") that path is tried first and
+     * kept only if the Products page shows up; otherwise the form is filled in as usual.
+     * The path taken and its duration up to the Products page go to {@link LoginMetrics}.
      * @param username The username to login with
      * @param password The password to login with
      * @return ProductsPage instance after successful login
      */
     public ProductsPage login(String username, String password) {
-        System.out.println("[LOGIN PAGE] Performing login with username: " + username);
+        log.debug("Performing login with username: {}", username);
+        String uiPath = UI_PATH;
+        // A fallback is timed from the start of the failed attempt, so its cost shows in the report
+        long start = System.nanoTime();
+        LoginStrategy fast = STRATEGIES.get(ConfigLoader.getLoginStrategy());
+        if (fast != null && fast.supports(username)) {
+            if (fast.login(context, username, password)) {
+                ProductsPage productsPage = new ProductsPage(context);
+                // A deep link the app ignores leaves the login form up; don't wait the full explicit wait for that
+                if (productsPage.isProductsPagePresent()) {
+                    recordPath(fast.getName(), start);
+                    return productsPage;
+                }
+            }
+            log.info("Fast login via {} did not reach the Products page, using the login form", fast.getName());
+            uiPath = UI_PATH + " (" + fast.getName() + " failed)";
+        }
         enterUsername(username);
         enterPassword(password);
-        return tapLogin();
+        ProductsPage productsPage = tapLogin();
+        // Stop at the same point as the fast path, so the report compares like with like
+        if (productsPage.isProductsPageDisplayed()) {
+            recordPath(uiPath, start);
+        } else {
+            lastLoginPath = uiPath;
+            log.warn("Login via {} did not reach the Products page", uiPath);
+        }
+        return productsPage;
+    }
+    
+    private void recordPath(String path, long startNanos) {
+        long micros = (System.nanoTime() - startNanos) / 1_000;
+        lastLoginPath = path;
+        LoginMetrics.record(path, micros);
+        log.info("Logged in via {} in {} ms", path, micros / 1_000);
+    }
+    
+    /**
+     * Gets the path the last {@link #login(String, String)} on this page took, e.g. "deeplink" or "ui".
+     * Every path is timed until the Products page is confirmed.
+     */
+    public String getLastLoginPath() {
+        return lastLoginPath;
+    }
+    
+    /**
+     * Makes a fast login strategy selectable through login.strategy.
+     * @param strategy The strategy; replaces any registered under the same name
+     */
+    public static void registerStrategy(LoginStrategy strategy) {
+        STRATEGIES.put(strategy.getName(), strategy);
     }
 }
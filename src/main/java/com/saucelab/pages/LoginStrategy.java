@@ -0,0 +1,31 @@
+package com.saucelab.pages;
+
+import com.saucelab.driver.DriverContext;
+
+/**
+ * A fast way to reach the Products page without typing into the login form,
+ * e.g. a deep link or restored app data. {@link LoginPage#login(String, String)} tries the
+ * configured strategy first, checks that the Products page is shown and otherwise falls back
+ * to the UI flow. Register custom strategies with {@link LoginPage#registerStrategy(LoginStrategy)}.
+ */
+public interface LoginStrategy {
+    
+    /**
+     * Gets the name used in login.strategy and in the login path report.
+     */
+    String getName();
+    
+    /**
+     * Whether this strategy can log in the given user; e.g. a deep link only opens the default account.
+     */
+    boolean supports(String username);
+    
+    /**
+     * Tries to open the app as the given user. The caller verifies the Products page afterwards.
+     * @param context The session to use
+     * @param username The user to log in
+     * @param password The user's password
+     * @return false if the path is not available, e.g. the app does not handle the deep link
+     */
+    boolean login(DriverContext context, String username, String password);
+}
@@ -0,0 +1,166 @@
+package com.saucelab.pages;
+
+/**
+ * Fixed-point amount in minor units (cents), parsed from a price label such as "$29.99"
+ * or "$1,299.5". Parsing walks the characters once without regexes, substrings or
+ * floating point, so comparing prices is exact and cheap.
+ */
+public final class Money implements Comparable<Money> {
+    
+    private final long cents;
+    private final char currency;
+    
+    private Money(long cents, char currency) {
+        this.cents = cents;
+        this.currency = currency;
+    }
+    
+    /**
+     * Creates an amount from minor units.
+     * @param cents The amount in cents
+     * @param currency The currency symbol, or 0 for none
+     */
+    public static Money ofCents(long cents, char currency) {
+        return new Money(cents, currency);
+    }
+    
+    /**
+     * Parses a price label: an optional currency symbol with an optional minus sign before or
+     * after it ("-$5" and "$-5" are the same), at least one integer digit with optional
+     * thousands separators every three digits ("1,299"), and optionally a decimal point
+     * followed by one or two digits. Surrounding whitespace is ignored. A bare symbol, a
+     * trailing or leading decimal point and misplaced separators ("1,29", ",129") are rejected.
+     * @param text The label, e.g. "$29.99"
+     * @return The amount
+     * @throws NumberFormatException if the text is not a price
+     */
+    public static Money parse(CharSequence text) {
+        if (text == null) {
+            throw new NumberFormatException("Price is null");
+        }
+        int i = 0;
+        int end = text.length();
+        while (i < end && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        while (end > i && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        boolean negative = false;
+        if (i < end && text.charAt(i) == '-') {
+            negative = true;
+            i++;
+        }
+        char currency = 0;
+        if (i < end && isCurrencySymbol(text.charAt(i))) {
+            currency = text.charAt(i++);
+            if (!negative && i < end && text.charAt(i) == '-') {
+                negative = true;
+                i++;
+            }
+        }
+        long units = 0;
+        int integerDigits = 0;
+        // Digits since the last thousands separator, -1 before the first one
+        int groupDigits = -1;
+        int decimals = -1;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (decimals >= 0) {
+                    if (++decimals > 2) {
+                        throw new NumberFormatException("More than two decimals in price: " + text);
+                    }
+                } else {
+                    integerDigits++;
+                    if (groupDigits >= 0 && ++groupDigits > 3) {
+                        throw new NumberFormatException("Misplaced thousands separator in price: " + text);
+                    }
+                }
+                units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+            } else if (c == '.' && decimals < 0) {
+                if (groupDigits >= 0 && groupDigits != 3) {
+                    throw new NumberFormatException("Misplaced thousands separator in price: " + text);
+                }
+                decimals = 0;
+            } else if (c == ',' && decimals < 0) {
+                boolean firstGroupOk = groupDigits < 0 && integerDigits >= 1 && integerDigits <= 3;
+                if (!firstGroupOk && groupDigits != 3) {
+                    throw new NumberFormatException("Misplaced thousands separator in price: " + text);
+                }
+                groupDigits = 0;
+            } else {
+                throw new NumberFormatException("Not a price: " + text);
+            }
+        }
+        if (integerDigits == 0 || decimals == 0) {
+            throw new NumberFormatException("Not a price: " + text);
+        }
+        if (decimals < 0 && groupDigits >= 0 && groupDigits != 3) {
+            throw new NumberFormatException("Misplaced thousands separator in price: " + text);
+        }
+        for (int scale = Math.max(decimals, 0); scale < 2; scale++) {
+            units = Math.multiplyExact(units, 10);
+        }
+        return new Money(negative ? -units : units, currency);
+    }
+    
+    private static boolean isCurrencySymbol(char c) {
+        return !Character.isDigit(c) && !Character.isWhitespace(c) && c != '-' && c != '+' && c != '.' && c != ',';
+    }
+    
+    /**
+     * Parses a price label, returning null instead of throwing for a missing or malformed label.
+     */
+    public static Money parseOrNull(CharSequence text) {
+        try {
+            return parse(text);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null;
+        }
+    }
+    
+    public long getCents() {
+        return cents;
+    }
+    
+    /**
+     * @return The currency symbol, or 0 if the label had none
+     */
+    public char getCurrency() {
+        return currency;
+    }
+    
+    /**
+     * Orders amounts of the same currency; consistent with {@link #equals(Object)}.
+     * @throws IllegalArgumentException if the currencies differ, since there is no rate to compare them by
+     */
+    @Override
+    public int compareTo(Money other) {
+        if (currency != other.currency) {
+            throw new IllegalArgumentException("Cannot compare " + this + " with " + other + ": different currencies");
+        }
+        return Long.compare(cents, other.cents);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        Money that = (Money) o;
+        return cents == that.cents && currency == that.currency;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents) * 31 + currency;
+    }
+    
+    @Override
+    public String toString() {
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        return (cents < 0 ? "-" : "") + (currency != 0 ? String.valueOf(currency) : "")
+            + abs / 100 + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
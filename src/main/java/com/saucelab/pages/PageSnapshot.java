@@ -0,0 +1,245 @@
+package com.saucelab.pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Rectangle;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory copy of one UiAutomator2 page source.
+ * Answers accessibility-id and XPath lookups locally so read-heavy page methods
+ * cost a single getPageSource round trip instead of one find/getText per element.
+ */
+public final class PageSnapshot {
+    
+    private static final Pattern BOUNDS = Pattern.compile("\\[(-?\\d+),(-?\\d+)]\\[(-?\\d+),(-?\\d+)]");
+    
+    private static final ThreadLocal<DocumentBuilder> BUILDER = ThreadLocal.withInitial(() -> {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            return factory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("No XML parser available for page snapshots", e);
+        }
+    });
+    
+    private final Document document;
+    private final long capturedAtNanos;
+    
+    private PageSnapshot(Document document) {
+        this.document = document;
+        this.capturedAtNanos = System.nanoTime();
+    }
+    
+    /**
+     * Parses a page source returned by the driver.
+     * @param pageSource The XML page source
+     * @return PageSnapshot instance
+     */
+    public static PageSnapshot parse(String pageSource) {
+        try {
+            DocumentBuilder builder = BUILDER.get();
+            builder.reset();
+            return new PageSnapshot(builder.parse(new InputSource(new StringReader(pageSource))));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Page source is not valid XML: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Checks whether a locator strategy can be evaluated against a snapshot.
+     * @param locator The locator to check
+     * @return true for accessibility id and XPath locators
+     */
+    public static boolean supports(By locator) {
+        String using = strategyOf(locator);
+        return "accessibility id".equals(using) || "xpath".equals(using);
+    }
+    
+    /**
+     * Finds all nodes matching the locator, in document order.
+     * @param locator An accessibility id or XPath locator
+     * @return Matching nodes, empty if none
+     */
+    public List<SnapshotNode> find(By locator) {
+        String using = strategyOf(locator);
+        String value = valueOf(locator);
+        if ("accessibility id".equals(using)) {
+            return findByAttribute("content-desc", value);
+        }
+        if ("xpath".equals(using)) {
+            return findByXPath(value);
+        }
+        throw new UnsupportedOperationException("Locator strategy not supported by page snapshots: " + locator);
+    }
+    
+    /**
+     * Gets how long ago this snapshot was captured.
+     * @return Age in milliseconds
+     */
+    public long getAgeMillis() {
+        return (System.nanoTime() - capturedAtNanos) / 1_000_000;
+    }
+    
+    private List<SnapshotNode> findByAttribute(String attribute, String value) {
+        List<SnapshotNode> matches = new ArrayList<>();
+        NodeList all = document.getElementsByTagName("*");
+        for (int i = 0; i < all.getLength(); i++) {
+            Element element = (Element) all.item(i);
+            if (value.equals(element.getAttribute(attribute))) {
+                matches.add(new SnapshotNode(element));
+            }
+        }
+        return matches;
+    }
+    
+    private List<SnapshotNode> findByXPath(String expression) {
+        try {
+            NodeList nodes = (NodeList) XPathFactory.newInstance().newXPath()
+                .evaluate(expression, document, XPathConstants.NODESET);
+            List<SnapshotNode> matches = new ArrayList<>(nodes.getLength());
+            for (int i = 0; i < nodes.getLength(); i++) {
+                if (nodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
+                    matches.add(new SnapshotNode((Element) nodes.item(i)));
+                }
+            }
+            return matches;
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Invalid XPath for page snapshot: " + expression, e);
+        }
+    }
+    
+    static String strategyOf(By locator) {
+        return locator instanceof By.Remotable
+            ? ((By.Remotable) locator).getRemoteParameters().using()
+            : null;
+    }
+    
+    static String valueOf(By locator) {
+        return locator instanceof By.Remotable
+            ? String.valueOf(((By.Remotable) locator).getRemoteParameters().value())
+            : null;
+    }
+    
+    /**
+     * Read-only view of one element in the snapshot.
+     */
+    public static final class SnapshotNode {
+        
+        private final Element element;
+        
+        private SnapshotNode(Element element) {
+            this.element = element;
+        }
+        
+        public String getText() {
+            return element.getAttribute("text");
+        }
+        
+        public String getContentDesc() {
+            return element.getAttribute("content-desc");
+        }
+        
+        public String getAttribute(String name) {
+            return element.hasAttribute(name) ? element.getAttribute(name) : null;
+        }
+        
+        public boolean isDisplayed() {
+            return !"false".equals(element.getAttribute("displayed"));
+        }
+        
+        /**
+         * Gets the on-screen bounds parsed from the "[x1,y1][x2,y2]" bounds attribute.
+         * @return The bounds, or null if the node has none
+         */
+        public Rectangle getBounds() {
+            Matcher m = BOUNDS.matcher(element.getAttribute("bounds"));
+            if (!m.matches()) {
+                return null;
+            }
+            int x1 = Integer.parseInt(m.group(1));
+            int y1 = Integer.parseInt(m.group(2));
+            int x2 = Integer.parseInt(m.group(3));
+            int y2 = Integer.parseInt(m.group(4));
+            return new Rectangle(x1, y1, y2 - y1, x2 - x1);
+        }
+        
+        /**
+         * Gets the text of the node that actually holds it: this node if it has no child
+         * elements, otherwise its first descendant leaf with text. A container's own text
+         * attribute may be empty or a combination of its children's texts.
+         * @return The text, or null if no leaf has any
+         */
+        public String getLeafText() {
+            if (!hasChildElements(element)) {
+                return element.getAttribute("text");
+            }
+            NodeList all = element.getElementsByTagName("*");
+            for (int i = 0; i < all.getLength(); i++) {
+                Element descendant = (Element) all.item(i);
+                if (!hasChildElements(descendant) && !descendant.getAttribute("text").isEmpty()) {
+                    return descendant.getAttribute("text");
+                }
+            }
+            return null;
+        }
+        
+        private static boolean hasChildElements(Element element) {
+            for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child.getNodeType() == Node.ELEMENT_NODE) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        /**
+         * Finds descendants of this node matching an accessibility id locator.
+         * @param locator An accessibility id locator
+         * @return Matching descendants in document order
+         */
+        public List<SnapshotNode> findDescendants(By locator) {
+            if (!"accessibility id".equals(strategyOf(locator))) {
+                throw new UnsupportedOperationException("Descendant lookups support accessibility id only: " + locator);
+            }
+            String accessibilityId = valueOf(locator);
+            NodeList all = element.getElementsByTagName("*");
+            List<SnapshotNode> matches = new ArrayList<>();
+            for (int i = 0; i < all.getLength(); i++) {
+                Element child = (Element) all.item(i);
+                if (accessibilityId.equals(child.getAttribute("content-desc"))) {
+                    matches.add(new SnapshotNode(child));
+                }
+            }
+            return Collections.unmodifiableList(matches);
+        }
+        
+        /**
+         * Gets the text of the first descendant matching an accessibility id locator.
+         * @param locator An accessibility id locator
+         * @return The text, or null if no descendant matches
+         */
+        public String findDescendantText(By locator) {
+            List<SnapshotNode> matches = findDescendants(locator);
+            return matches.isEmpty() ? null : matches.get(0).getText();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.saucelab.pages;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Checks that every product in the catalog has the same price on the product list, its
+ * details page and the cart. Uses one crawl of the list, one details visit per product
+ * (adding it to the cart on the way) and a single read of the cart, so a catalog of N
+ * products costs 2N + 1 screen changes. Prices are compared as {@link Money}, and every
+ * mismatch is collected instead of stopping at the first.
+ *
+ * <p>Expects an empty cart and leaves every product in it.
+ */
+public class PriceSweep {
+    
+    private static final Logger log = LoggerFactory.getLogger(PriceSweep.class);
+    
+    private final ProductsPage productsPage;
+    
+    public PriceSweep(ProductsPage productsPage) {
+        this.productsPage = productsPage;
+    }
+    
+    /**
+     * Runs the sweep, starting and ending its product list visits on the Products page.
+     * @return The prices seen per product and all mismatches
+     */
+    public Result run() {
+        long started = System.nanoTime();
+        Map<String, PriceRecord> records = new LinkedHashMap<>();
+        for (ProductTile tile : productsPage.getAllProducts()) {
+            records.put(tile.getName(), new PriceRecord(tile.getName(), Money.parseOrNull(tile.getPrice())));
+        }
+        
+        ProductsPage page = productsPage;
+        for (PriceRecord record : records.values()) {
+            page.scrollToProduct(record.name);
+            ProductDetailsPage details = page.selectProductByName(record.name);
+            record.details = Money.parseOrNull(details.getProductPrice());
+            details.addToCart();
+            page = details.backToProducts();
+        }
+        
+        CartPage cart = page.goToCart();
+        for (CartLine line : cart.getCartLines()) {
+            PriceRecord record = records.get(line.getName());
+            if (record != null) {
+                record.cart = line.getPrice();
+            }
+        }
+        
+        List<String> mismatches = new ArrayList<>();
+        for (PriceRecord record : records.values()) {
+            if (!record.isConsistent()) {
+                mismatches.add(record.toString());
+            }
+        }
+        Result result = new Result(new ArrayList<>(records.values()), mismatches,
+            (System.nanoTime() - started) / 1_000_000);
+        log.info("Price sweep: {}", result);
+        return result;
+    }
+    
+    /**
+     * Prices of one product on each screen; null where the price was missing or unreadable.
+     */
+    public static final class PriceRecord {
+        
+        private final String name;
+        private final Money list;
+        private Money details;
+        private Money cart;
+        
+        PriceRecord(String name, Money list) {
+            this.name = name;
+            this.list = list;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public Money getList() {
+            return list;
+        }
+        
+        public Money getDetails() {
+            return details;
+        }
+        
+        public Money getCart() {
+            return cart;
+        }
+        
+        /**
+         * @return true if the price was read on all three screens and is the same on each
+         */
+        public boolean isConsistent() {
+            return list != null && list.equals(details) && list.equals(cart);
+        }
+        
+        @Override
+        public String toString() {
+            return name + ": list " + describe(list) + ", details " + describe(details) + ", cart " + describe(cart);
+        }
+        
+        private static String describe(Money price) {
+            return Objects.toString(price, "missing");
+        }
+    }
+    
+    /**
+     * Outcome of one sweep.
+     */
+    public static final class Result {
+        
+        private final List<PriceRecord> records;
+        private final List<String> mismatches;
+        private final long elapsedMillis;
+        
+        Result(List<PriceRecord> records, List<String> mismatches, long elapsedMillis) {
+            this.records = Collections.unmodifiableList(records);
+            this.mismatches = Collections.unmodifiableList(mismatches);
+            this.elapsedMillis = elapsedMillis;
+        }
+        
+        /**
+         * @return One record per product, in catalog order
+         */
+        public List<PriceRecord> getRecords() {
+            return records;
+        }
+        
+        /**
+         * @return One line per product whose prices differ or could not be read
+         */
+        public List<String> getMismatches() {
+            return mismatches;
+        }
+        
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+        
+        @Override
+        public String toString() {
+            return records.size() + " product(s), " + mismatches.size() + " mismatch(es), " + elapsedMillis + " ms";
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.saucelab.pages;
 
+import com.saucelab.driver.DriverContext;
 import io.appium.java_client.AppiumBy;
 import org.openqa.selenium.By;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class ProductDetailsPage extends BasePage {
     
+    private static final Logger log = LoggerFactory.getLogger(ProductDetailsPage.class);
+    
     // Locators for Product Details Page elements
     // Using %s placeholder for dynamic product name
     private static final String PRODUCT_NAME_XPATH = "//android.widget.TextView[@text='%s']";
@@ -17,10 +22,17 @@ public class ProductDetailsPage extends BasePage {
 
     // Store the product name for validation
     private String expectedProductName;
+    // Price already read for the product, from its tile or this page; goes to the expected cart
+    private String knownPrice;
     
     public ProductDetailsPage() {
         super();
-        System.out.println("[DETAILS PAGE] Initialized");
+        log.debug("Initialized");
+    }
+    
+    public ProductDetailsPage(DriverContext context) {
+        super(context);
+        log.debug("Initialized on {}", context);
     }
     
     /**
@@ -33,15 +45,25 @@ public class ProductDetailsPage extends BasePage {
         return this;
     }
     
+    /**
+     * Sets the price already read for the product, e.g. from its tile on the Products page.
+     * @param price The price as shown (e.g., "$29.99")
+     * @return ProductDetailsPage instance for chaining
+     */
+    public ProductDetailsPage withExpectedPrice(String price) {
+        this.knownPrice = price;
+        return this;
+    }
+    
     /**
      * Checks if the Product Details page is displayed for a specific product.
      * @param productName The product name to look for
      * @return true if product name is visible
      */
     public boolean isProductDetailsPageDisplayed(String productName) {
-        System.out.println("[DETAILS PAGE] Checking if Product Details page is displayed for: " + productName);
+        log.debug("Checking if Product Details page is displayed for: {}", productName);
         By productNameLocator = By.xpath(String.format(PRODUCT_NAME_XPATH, productName));
-        return isDisplayed(productNameLocator);
+        return isPresent(productNameLocator);
     }
     
     /**
@@ -53,8 +75,8 @@ public class ProductDetailsPage extends BasePage {
             return isProductDetailsPageDisplayed(expectedProductName);
         }
         // Fallback - check if Add to Cart button is visible (we're on details page)
-        System.out.println("[DETAILS PAGE] Checking if Product Details page is displayed (using Add to Cart button)");
-        return isDisplayed(addToCartButton);
+        log.debug("Checking if Product Details page is displayed (using Add to Cart button)");
+        return isPresent(addToCartButton);
     }
     
     /**
@@ -65,7 +87,7 @@ public class ProductDetailsPage extends BasePage {
     public String getProductName(String productName) {
         By productNameLocator = By.xpath(String.format(PRODUCT_NAME_XPATH, productName));
         String name = getText(productNameLocator);
-        System.out.println("[DETAILS PAGE] Product name: " + name);
+        log.debug("Product name: {}", name);
         return name;
     }
     
@@ -86,7 +108,8 @@ public class ProductDetailsPage extends BasePage {
      */
     public String getProductPrice() {
         String price = getText(productPrice);
-        System.out.println("[DETAILS PAGE] Product price: " + price);
+        log.debug("Product price: {}", price);
+        knownPrice = price;
         return price;
     }
     
@@ -96,18 +119,23 @@ public class ProductDetailsPage extends BasePage {
      */
     public String getProductDescription() {
         String description = getText(productDescription);
-        System.out.println("[DETAILS PAGE] Product description: " + description);
+        log.debug("Product description: {}", description);
         return description;
     }
     
     /**
-     * Taps the Add to Cart button.
+     * Taps the Add to Cart button. With an expected product set, the product is also added
+     * to the session's {@link ExpectedCart}, with the price read from its tile or from
+     * {@link #getProductPrice()} if either was read; no extra read is made for it.
      * @return ProductDetailsPage instance for method chaining
      */
     public ProductDetailsPage addToCart() {
-        System.out.println("[DETAILS PAGE] Adding product to cart");
+        log.debug("Adding product to cart");
         click(addToCartButton);
-        System.out.println("[DETAILS PAGE] Product added to cart successfully");
+        if (expectedProductName != null) {
+            ExpectedCart.of(context).add(expectedProductName, Money.parseOrNull(knownPrice));
+        }
+        log.debug("Product added to cart successfully");
         return this;
     }
     
@@ -132,18 +160,31 @@ public class ProductDetailsPage extends BasePage {
      * @return ProductDetailsPage instance
      */
     public ProductDetailsPage removeFromCart() {
-        System.out.println("[DETAILS PAGE] Removing product from cart");
+        log.debug("Removing product from cart");
         click(removeButton);
+        if (expectedProductName != null) {
+            ExpectedCart.of(context).remove(expectedProductName);
+        }
         return this;
     }
     
+    /**
+     * Taps Back to Products.
+     * @return ProductsPage instance
+     */
+    public ProductsPage backToProducts() {
+        log.debug("Going back to Products");
+        click(backButton);
+        return new ProductsPage(context);
+    }
+    
     /**
      * Navigates to the Cart page.
      * @return CartPage instance
      */
     public CartPage goToCart() {
-        System.out.println("[DETAILS PAGE] Navigating to Cart");
+        log.debug("Navigating to Cart");
         click(cartIcon);
-        return new CartPage();
+        return new CartPage(context);
     }
 }
@@ -0,0 +1,69 @@
+package com.saucelab.pages;
+
+import org.openqa.selenium.Rectangle;
+
+import java.util.Objects;
+
+/**
+ * Immutable view of one product tile on the Products page.
+ */
+public final class ProductTile {
+    
+    private final int index;
+    private final String name;
+    private final String price;
+    private final Rectangle bounds;
+    
+    public ProductTile(int index, String name, String price, Rectangle bounds) {
+        this.index = index;
+        this.name = name;
+        this.price = price;
+        this.bounds = bounds;
+    }
+    
+    /**
+     * @return 0-based position of the tile in screen order
+     */
+    public int getIndex() {
+        return index;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * @return The price as shown on screen (e.g., "$29.99")
+     */
+    public String getPrice() {
+        return price;
+    }
+    
+    /**
+     * @return On-screen bounds of the tile, or null if the page source had none
+     */
+    public Rectangle getBounds() {
+        return bounds;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProductTile)) return false;
+        ProductTile that = (ProductTile) o;
+        return index == that.index
+            && Objects.equals(name, that.name)
+            && Objects.equals(price, that.price)
+            && Objects.equals(bounds, that.bounds);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(index, name, price, bounds);
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductTile[" + index + ": " + name + " " + price + "]";
+    }
+}
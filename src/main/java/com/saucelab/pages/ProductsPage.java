@@ -1,14 +1,22 @@
 package com.saucelab.pages;
 
+import com.saucelab.driver.DriverContext;
 import io.appium.java_client.AppiumBy;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 
 public class ProductsPage extends BasePage {
     
+    private static final Logger log = LoggerFactory.getLogger(ProductsPage.class);
+    
     // Locators for Products Page elements
     private final By productsTitle = By.xpath("//android.widget.TextView[@text='PRODUCTS']");
     private final By productItems = AppiumBy.accessibilityId("test-Item");
@@ -20,7 +28,18 @@ public class ProductsPage extends BasePage {
     // Alternative locators
     public ProductsPage() {
         super();
-        System.out.println("[PRODUCTS PAGE] Initialized");
+        log.debug("Initialized");
+    }
+    
+    public ProductsPage(DriverContext context) {
+        super(context);
+        log.debug("Initialized on {}", context);
+    }
+    
+    // Reads of the product list do not need to wait for the UI to go idle
+    @Override
+    protected String settingsProfileName() {
+        return "list-read";
     }
     
     /**
@@ -28,11 +47,25 @@ public class ProductsPage extends BasePage {
      * @return true if Products title is visible
      */
     public boolean isProductsPageDisplayed() {
-        System.out.println("[PRODUCTS PAGE] Checking if Products page is displayed");
+        log.debug("Checking if Products page is displayed");
         try {
             return isDisplayed(productsTitle);
         } catch (Exception e) {
-            System.out.println("[PRODUCTS PAGE] Products title not found, checking alternatives...");
+            log.debug("Products title not found, checking alternatives...");
+            return false;
+        }
+    }
+    
+    /**
+     * Checks if the Products page shows up within the presence budget (presence.timeout.ms),
+     * for callers that expect it may not, e.g. after a deep link the app ignored.
+     * @return true if Products title is visible
+     */
+    public boolean isProductsPagePresent() {
+        log.debug("Checking if Products page is present");
+        try {
+            return isPresent(productsTitle);
+        } catch (Exception e) {
             return false;
         }
     }
@@ -46,12 +79,13 @@ public class ProductsPage extends BasePage {
     }
     
     /**
-     * Gets the number of products displayed.
+     * Gets the number of products displayed. Only counts tiles on screen;
+     * use {@link #getAllProducts()} for the whole catalog.
      * @return Count of product items
      */
     public int getProductCount() {
         List<WebElement> products = findElements(productItems);
-        System.out.println("[PRODUCTS PAGE] Found " + products.size() + " products");
+        log.debug("Found {} products", products.size());
         return products.size();
     }
     
@@ -61,10 +95,10 @@ public class ProductsPage extends BasePage {
      * @return ProductDetailsPage instance with expected product name set
      */
     public ProductDetailsPage selectProductByIndex(int index) {
-        System.out.println("[PRODUCTS PAGE] Selecting product at index: " + index);
+        log.debug("Selecting product at index: {}", index);
         
-        // Get product name before clicking
-        String productNameText = getProductNameAtIndex(index);
+        // Name and price come from one page source read before clicking
+        ProductTile tile = getProductAtIndex(index);
         
         List<WebElement> products = findElements(productItems);
         
@@ -73,9 +107,12 @@ public class ProductsPage extends BasePage {
         }
         
         products.get(index).click();
+        invalidateSnapshot();
         
-        // Return ProductDetailsPage with expected product name
-        return new ProductDetailsPage().withExpectedProduct(productNameText);
+        // Return ProductDetailsPage with expected product name and price
+        return new ProductDetailsPage(context)
+            .withExpectedProduct(tile != null ? tile.getName() : null)
+            .withExpectedPrice(tile != null ? tile.getPrice() : null);
     }
     
     /**
@@ -92,40 +129,91 @@ public class ProductsPage extends BasePage {
      * @return ProductDetailsPage instance with expected product name set
      */
     public ProductDetailsPage selectProductByName(String name) {
-        System.out.println("[PRODUCTS PAGE] Selecting product by name: " + name);
+        log.debug("Selecting product by name: {}", name);
         By productByName = By.xpath("//android.widget.TextView[@text='" + name + "']/ancestor::android.view.ViewGroup[@content-desc='test-Item']");
         click(productByName);
-        return new ProductDetailsPage().withExpectedProduct(name);
+        return new ProductDetailsPage(context).withExpectedProduct(name);
+    }
+    
+    /**
+     * Reads every visible product tile from one page source, so it costs one getPageSource call
+     * (plus a presence check if the list has not rendered yet) regardless of how many products
+     * are shown. With snapshot reads the page source is the cached snapshot; without, it is
+     * fetched for this read only.
+     * @return Immutable list of tiles in screen order; empty if no product is shown
+     */
+    public List<ProductTile> getVisibleProducts() {
+        List<PageSnapshot.SnapshotNode> items = bulkReadSnapshot().find(productItems);
+        if (items.isEmpty()) {
+            // List not rendered yet - wait for the first tile and read again
+            invalidateSnapshot();
+            if (!isPresent(productItems)) {
+                return Collections.emptyList();
+            }
+            invalidateSnapshot();
+            items = bulkReadSnapshot().find(productItems);
+        }
+        List<ProductTile> tiles = new ArrayList<>(items.size());
+        for (PageSnapshot.SnapshotNode item : items) {
+            tiles.add(new ProductTile(tiles.size(),
+                item.findDescendantText(productName),
+                item.findDescendantText(productPrice),
+                item.getBounds()));
+        }
+        log.debug("Read {} visible products", tiles.size());
+        return Collections.unmodifiableList(tiles);
+    }
+    
+    /**
+     * Gets one visible product tile, read with {@link #getVisibleProducts()}.
+     * @param index The index of the product on screen
+     * @return The tile, or null if there is no product at that index
+     */
+    public ProductTile getProductAtIndex(int index) {
+        List<ProductTile> tiles = getVisibleProducts();
+        return index < tiles.size() ? tiles.get(index) : null;
+    }
+    
+    /**
+     * Scrolls through the whole product list once, handing each product to the consumer
+     * as soon as it is revealed. Starts from the current scroll position.
+     * @param consumer Receives every distinct product, in catalog order
+     * @return All products seen, the number of scrolls and the crawl time
+     */
+    public CatalogCrawler.CrawlResult crawlCatalog(Consumer<ProductTile> consumer) {
+        return new CatalogCrawler(this).crawl(consumer);
+    }
+    
+    /**
+     * Reads every product in the catalog, including those below the fold, in one scroll pass.
+     * @return Immutable list of distinct products in catalog order
+     */
+    public List<ProductTile> getAllProducts() {
+        return crawlCatalog(tile -> { }).getProducts();
     }
     
     /**
      * Gets the name of a product at the specified index.
      * @param index The index of the product
-     * @return The product name
+     * @return The product name, or null if there is no product at that index
      */
     public String getProductNameAtIndex(int index) {
-        List<WebElement> productNames = findElements(productName);
-        if (index < productNames.size()) {
-            String name = productNames.get(index).getText();
-            System.out.println("[PRODUCTS PAGE] Product name at index " + index + ": " + name);
-            return name;
-        }
-        return null;
+        ProductTile tile = getProductAtIndex(index);
+        String name = tile != null ? tile.getName() : null;
+        log.debug("Product name at index {}: {}", index, name);
+        return name;
     }
     
     /**
      * Gets the price of a product at the specified index.
      * @param index The index of the product
-     * @return The product price as string (e.g., "$29.99")
+     * @return The product price as string (e.g., "$29.99"), or null if there is no product at that index
      */
     public String getProductPriceAtIndex(int index) {
-        List<WebElement> productPrices = findElements(productPrice);
-        if (index < productPrices.size()) {
-            String price = productPrices.get(index).getText();
-            System.out.println("[PRODUCTS PAGE] Product price at index " + index + ": " + price);
-            return price;
-        }
-        return null;
+        ProductTile tile = getProductAtIndex(index);
+        String price = tile != null ? tile.getPrice() : null;
+        log.debug("Product price at index {}: {}", index, price);
+        return price;
     }
     
     /**
@@ -133,7 +221,7 @@ public class ProductsPage extends BasePage {
      * @param productText The text to scroll to
      */
     public void scrollToProduct(String productText) {
-        System.out.println("[PRODUCTS PAGE] Scrolling to product: " + productText);
+        log.debug("Scrolling to product: {}", productText);
         scrollToText(productText);
     }
     
@@ -142,9 +230,9 @@ public class ProductsPage extends BasePage {
      * @return CartPage instance
      */
     public CartPage goToCart() {
-        System.out.println("[PRODUCTS PAGE] Navigating to Cart");
+        log.debug("Navigating to Cart");
         click(cartIcon);
-        return new CartPage();
+        return new CartPage(context);
     }
     
     /**
@@ -153,10 +241,12 @@ public class ProductsPage extends BasePage {
      */
     public String getCartBadgeCount() {
         try {
-            By cartCount = AppiumBy.accessibilityId("test-Cart drop zone");
-            WebElement badge = waitForElement(cartCount);
-            String count = badge.getText();
-            System.out.println("[PRODUCTS PAGE] Cart badge count: " + count);
+            // Badge is hidden when the cart is empty, so don't burn the full explicit wait on it
+            if (!isPresent(cartBadge)) {
+                return "0";
+            }
+            String count = getText(cartBadge);
+            log.debug("Cart badge count: {}", count);
             return count;
         } catch (Exception e) {
             return "0";
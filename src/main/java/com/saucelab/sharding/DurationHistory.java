@@ -0,0 +1,108 @@
+package com.saucelab.sharding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-test wall-clock durations from earlier runs, keyed by qualified method name
+ * (e.g. com.saucelab.tests.ShoppingFlowTest.testLogin) and stored as a properties file.
+ * Saving merges into the file, so each shard only overwrites the tests it ran.
+ */
+public final class DurationHistory {
+    
+    private static final Logger log = LoggerFactory.getLogger(DurationHistory.class);
+    
+    private final Path file;
+    private final Map<String, Long> durations = new ConcurrentHashMap<>();
+    
+    private DurationHistory(Path file) {
+        this.file = file;
+    }
+    
+    /**
+     * Loads the history file; a missing or unreadable file gives an empty history.
+     * @param file The history file
+     * @return DurationHistory instance
+     */
+    public static DurationHistory load(Path file) {
+        DurationHistory history = new DurationHistory(file);
+        history.durations.putAll(read(file));
+        log.debug("Loaded {} test duration(s) from {}", history.durations.size(), file);
+        return history;
+    }
+    
+    private static Map<String, Long> read(Path file) {
+        Map<String, Long> values = new TreeMap<>();
+        if (!Files.isRegularFile(file)) {
+            return values;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            log.warn("Could not read test durations from {}: {}", file, e.getMessage());
+            return values;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                values.put(key, Long.parseLong(properties.getProperty(key).trim()));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed duration for {}", key);
+            }
+        }
+        return values;
+    }
+    
+    public boolean isEmpty() {
+        return durations.isEmpty();
+    }
+    
+    /**
+     * Gets the recorded duration of a test in milliseconds, or null if it has never run.
+     */
+    public Long getMillis(String test) {
+        return durations.get(test);
+    }
+    
+    public Map<String, Long> asMap() {
+        return Collections.unmodifiableMap(durations);
+    }
+    
+    /**
+     * Records the latest duration of a test; it replaces any earlier value on save.
+     */
+    public void record(String test, long millis) {
+        durations.put(test, millis);
+    }
+    
+    /**
+     * Writes the history back, keeping entries other shards added since it was loaded.
+     */
+    public synchronized void save() {
+        Map<String, Long> merged = read(file);
+        merged.putAll(durations);
+        StringBuilder out = new StringBuilder("# Test durations in milliseconds, used for shard planning\n");
+        // Sorted keys keep the file diff-friendly when it is committed or cached between CI runs
+        merged.forEach((test, millis) -> out.append(test).append('=').append(millis).append('\n'));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.write(file, out.toString().getBytes(StandardCharsets.ISO_8859_1));
+            log.info("Saved {} test duration(s) to {}", merged.size(), file);
+        } catch (IOException e) {
+            log.warn("Could not save test durations to {}: {}", file, e.getMessage());
+        }
+    }
+}
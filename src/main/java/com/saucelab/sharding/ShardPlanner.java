@@ -0,0 +1,153 @@
+package com.saucelab.sharding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits tests across shards with longest-processing-time-first: dependency chains are
+ * sorted by estimated duration and each goes to the currently lightest shard.
+ * Tests linked by dependsOnMethods always land on the same shard.
+ * <p>
+ * Estimates come from {@link DurationHistory}; tests with no history get the mean of the
+ * known ones, and with no history at all every test weighs the same (an even split by count).
+ * The plan is deterministic, so every machine computes the same split from the same history.
+ */
+public final class ShardPlanner {
+    
+    private ShardPlanner() {
+        // Utility class
+    }
+    
+    /**
+     * One shard of the plan.
+     */
+    public static final class Shard {
+        
+        private final int index;
+        private final Set<String> tests = new LinkedHashSet<>();
+        private long estimatedMillis;
+        
+        Shard(int index) {
+            this.index = index;
+        }
+        
+        public int getIndex() {
+            return index;
+        }
+        
+        public Set<String> getTests() {
+            return Collections.unmodifiableSet(tests);
+        }
+        
+        /**
+         * Gets the estimated wall-clock time; with no history this is the test count.
+         */
+        public long getEstimatedMillis() {
+            return estimatedMillis;
+        }
+        
+        @Override
+        public String toString() {
+            return "shard " + index + ": " + tests.size() + " test(s), ~" + estimatedMillis + " ms";
+        }
+    }
+    
+    /**
+     * Plans the split.
+     * @param dependsOn Every test (qualified method name) mapped to the tests it depends on
+     * @param history Durations from earlier runs
+     * @param shardCount Number of shards, at least 1
+     * @return One entry per shard, in shard index order
+     */
+    public static List<Shard> plan(Map<String, ? extends Collection<String>> dependsOn, DurationHistory history, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shard.count must be at least 1, was " + shardCount);
+        }
+        List<Set<String>> chains = chains(dependsOn);
+        Map<Set<String>, Long> estimates = new HashMap<>();
+        long fallback = meanKnownMillis(dependsOn.keySet(), history);
+        for (Set<String> chain : chains) {
+            long total = 0;
+            for (String test : chain) {
+                Long known = history.getMillis(test);
+                total += known != null ? known : fallback;
+            }
+            estimates.put(chain, total);
+        }
+        
+        // Longest first; ties broken by name so the plan does not depend on map ordering
+        chains.sort(Comparator.<Set<String>>comparingLong(estimates::get).reversed()
+            .thenComparing(chain -> chain.iterator().next()));
+        
+        List<Shard> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new Shard(i));
+        }
+        for (Set<String> chain : chains) {
+            Shard lightest = shards.get(0);
+            for (Shard shard : shards) {
+                if (shard.estimatedMillis < lightest.estimatedMillis) {
+                    lightest = shard;
+                }
+            }
+            lightest.tests.addAll(chain);
+            lightest.estimatedMillis += estimates.get(chain);
+        }
+        return shards;
+    }
+    
+    /**
+     * Mean recorded duration of the given tests, or 1 when none has been recorded.
+     */
+    private static long meanKnownMillis(Collection<String> tests, DurationHistory history) {
+        long total = 0;
+        int known = 0;
+        for (String test : tests) {
+            Long millis = history.getMillis(test);
+            if (millis != null) {
+                total += millis;
+                known++;
+            }
+        }
+        return known == 0 ? 1 : Math.max(1, total / known);
+    }
+    
+    /**
+     * Groups tests into connected components of the dependsOnMethods graph (union-find).
+     * Dependencies outside the given tests are ignored.
+     */
+    static List<Set<String>> chains(Map<String, ? extends Collection<String>> dependsOn) {
+        Map<String, String> parent = new HashMap<>();
+        for (String test : dependsOn.keySet()) {
+            parent.put(test, test);
+        }
+        for (Map.Entry<String, ? extends Collection<String>> entry : dependsOn.entrySet()) {
+            for (String dependency : entry.getValue()) {
+                if (parent.containsKey(dependency)) {
+                    parent.put(root(parent, entry.getKey()), root(parent, dependency));
+                }
+            }
+        }
+        Map<String, Set<String>> byRoot = new LinkedHashMap<>();
+        dependsOn.keySet().stream().sorted().forEach(test ->
+            byRoot.computeIfAbsent(root(parent, test), k -> new LinkedHashSet<>()).add(test));
+        return new ArrayList<>(byRoot.values());
+    }
+    
+    private static String root(Map<String, String> parent, String test) {
+        String root = test;
+        while (!parent.get(root).equals(root)) {
+            root = parent.get(root);
+        }
+        parent.put(test, root);
+        return root;
+    }
+}
@@ -0,0 +1,110 @@
+package com.saucelab.driver;
+
+import com.saucelab.config.ConfigLoader;
+import com.saucelab.stub.StubAppiumServer;
+import io.appium.java_client.android.AndroidDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * Checks that sessions skip the APK install while the device has the same build, and install
+ * again when the recorded build differs or the app went missing from the device. Runs against
+ * a stand-in server with its own APK file and install state file.
+ */
+public class AppInstallCacheTest {
+    
+    private Path workDir;
+    private Path stateFile;
+    private StubAppiumServer server;
+    private DeviceEndpoint endpoint;
+    private SessionPool pool;
+    private String digest;
+    
+    @BeforeClass
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("install-cache");
+        Path apk = workDir.resolve("app.apk");
+        Files.write(apk, "stand-in apk".getBytes(StandardCharsets.UTF_8));
+        stateFile = workDir.resolve("installed-apps.properties");
+        ConfigLoader.override("app.install.state.file", stateFile.toString());
+        ConfigLoader.override("app.install.cache", "true");
+        ConfigLoader.override("app.path", apk.toAbsolutePath().toString());
+        digest = AppInstallCache.digest(apk.toAbsolutePath().toString());
+        
+        server = StubAppiumServer.start(0).withAppInstalled(false);
+        endpoint = new DeviceEndpoint("install", server.getUrl(), "stub-install", ConfigLoader.getPlatformVersion());
+        pool = new SessionPool(Collections.singletonList(endpoint), Duration.ofSeconds(5));
+    }
+    
+    @AfterClass(alwaysRun = true)
+    public void tearDown() throws IOException {
+        // The stand-in app is always "installed" for the other tests
+        ConfigLoader.override("app.path", "");
+        ConfigLoader.override("app.install.cache", "false");
+        if (server != null) {
+            server.close();
+        }
+        Files.deleteIfExists(stateFile);
+        Files.deleteIfExists(workDir.resolve("app.apk"));
+        Files.deleteIfExists(workDir);
+    }
+    
+    @Test(description = "The first session installs the APK and the next one with the same build skips it")
+    public void testSecondSessionSkipsInstall() {
+        startAndQuit();
+        Assert.assertEquals(installs(), 1, "First session should install the APK");
+        Assert.assertTrue(new AppInstallCache(stateFile).isInstalled(endpoint, digest),
+            "Installed build should be recorded for the device");
+        
+        startAndQuit();
+        Assert.assertEquals(installs(), 1, "Second session with the same build should not install again");
+        Assert.assertEquals(newSessions(), 2);
+    }
+    
+    @Test(description = "A different recorded build installs the APK again",
+          dependsOnMethods = "testSecondSessionSkipsInstall")
+    public void testDigestMismatchReinstalls() {
+        new AppInstallCache(stateFile).markInstalled(endpoint, "older-build");
+        long before = installs();
+        
+        startAndQuit();
+        Assert.assertEquals(installs(), before + 1, "Session should install the APK when the recorded build differs");
+        Assert.assertTrue(new AppInstallCache(stateFile).isInstalled(endpoint, digest),
+            "Current build should replace the recorded one");
+    }
+    
+    @Test(description = "An app removed behind the cache's back is installed again",
+          dependsOnMethods = "testDigestMismatchReinstalls")
+    public void testMissingAppReinstalls() {
+        server.withAppInstalled(false);
+        long before = installs();
+        long sessionsBefore = newSessions();
+        
+        startAndQuit();
+        Assert.assertEquals(installs(), before + 1, "Session should fall back to installing the APK");
+        Assert.assertEquals(newSessions(), sessionsBefore + 2, "Expected the cached start and one retry with the APK");
+        Assert.assertTrue(new AppInstallCache(stateFile).isInstalled(endpoint, digest));
+    }
+    
+    private void startAndQuit() {
+        AndroidDriver driver = DriverManager.createDriver(pool, endpoint);
+        driver.quit();
+    }
+    
+    private long installs() {
+        return server.getCommandCounts().getOrDefault("installApp", 0L);
+    }
+    
+    private long newSessions() {
+        return server.getCommandCounts().getOrDefault("newSession", 0L);
+    }
+}
@@ -0,0 +1,123 @@
+package com.saucelab.driver;
+
+import com.saucelab.config.ConfigLoader;
+import com.saucelab.stub.StubAppiumServer;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Drives one endpoint's circuit breaker through CLOSED, OPEN, HALF_OPEN and back to CLOSED
+ * against two stand-in servers, one of which refuses every session until it recovers.
+ */
+public class CircuitBreakerTest {
+    
+    private static final int THRESHOLD = 2;
+    private static final Duration COOL_DOWN = Duration.ofMillis(500);
+    
+    private StubAppiumServer badServer;
+    private StubAppiumServer goodServer;
+    private DeviceEndpoint bad;
+    private DeviceEndpoint good;
+    private SessionPool pool;
+    
+    @BeforeClass
+    public void startServers() {
+        ConfigLoader.override("app.path", "");
+        badServer = StubAppiumServer.start(0);
+        goodServer = StubAppiumServer.start(0);
+        bad = new DeviceEndpoint("bad", badServer.getUrl(), "stub-bad", ConfigLoader.getPlatformVersion());
+        good = new DeviceEndpoint("good", goodServer.getUrl(), "stub-good", ConfigLoader.getPlatformVersion());
+        // The failing endpoint is first in line, so each lease tries it before the healthy one
+        pool = new SessionPool(Arrays.asList(bad, good), Duration.ofSeconds(5), THRESHOLD, COOL_DOWN);
+    }
+    
+    @AfterClass(alwaysRun = true)
+    public void stopServers() {
+        if (badServer != null) {
+            badServer.close();
+        }
+        if (goodServer != null) {
+            goodServer.close();
+        }
+    }
+    
+    @Test(description = "Only connection- and session-level errors count against an endpoint")
+    public void testEndpointFailureClassification() {
+        Assert.assertTrue(EndpointHealth.isEndpointFailure(new SessionNotCreatedException("refused")));
+        Assert.assertFalse(EndpointHealth.isEndpointFailure(new NoSuchElementException("missing")),
+            "A missing element is the test's problem, not the device's");
+        Assert.assertFalse(EndpointHealth.isEndpointFailure(new WebDriverException("unknown error")),
+            "A bare WebDriverException should not open a circuit");
+    }
+    
+    @Test(description = "Circuit opens after the threshold, leases skip it, and a successful probe closes it",
+          dependsOnMethods = "testEndpointFailureClassification")
+    public void testCircuitOpensFailsOverAndCloses() throws InterruptedException {
+        EndpointHealth badHealth = pool.getHealth(bad);
+        badServer.setFailing(true);
+        
+        // Each open tries the failing endpoint first, then fails over to the healthy one
+        for (int i = 1; i <= THRESHOLD; i++) {
+            DriverContext context = DriverManager.openContext(pool);
+            Assert.assertEquals(context.getEndpoint(), good, "Open " + i + " should fail over to the healthy endpoint");
+            close(context);
+        }
+        Assert.assertEquals(badHealth.getState(), EndpointHealth.State.OPEN,
+            "Circuit should open after " + THRESHOLD + " failures");
+        Assert.assertEquals(badHealth.getTotalFailures(), THRESHOLD);
+        
+        // While open, the failing endpoint is not even tried
+        DriverContext held = DriverManager.openContext(pool);
+        Assert.assertEquals(held.getEndpoint(), good, "Lease should skip the open endpoint");
+        Assert.assertEquals(badHealth.getTotalFailures(), THRESHOLD, "Open endpoint should not be dispatched to");
+        Assert.assertEquals(pool.getHealth(good).getState(), EndpointHealth.State.CLOSED);
+        
+        // Recover, wait out the cool-down and, with the healthy endpoint still held, probe
+        badServer.setFailing(false);
+        Thread.sleep(COOL_DOWN.toMillis() + 100);
+        DriverContext probe = DriverManager.openContext(pool);
+        try {
+            Assert.assertEquals(probe.getEndpoint(), bad, "Probe should go to the recovered endpoint");
+            Assert.assertEquals(badHealth.getState(), EndpointHealth.State.CLOSED, "Successful probe should close the circuit");
+            Assert.assertEquals(badHealth.getTimesOpened(), 1);
+        } finally {
+            close(probe);
+            close(held);
+        }
+    }
+    
+    @Test(description = "A probe that ends without an endpoint verdict opens the circuit again")
+    public void testInconclusiveProbeReopens() throws InterruptedException {
+        EndpointHealth health = new EndpointHealth("probe", 1, COOL_DOWN);
+        health.recordFailure(new SessionNotCreatedException("refused"));
+        Thread.sleep(COOL_DOWN.toMillis() + 100);
+        Assert.assertTrue(health.tryDispatch(), "Cool-down passed, a probe should be allowed");
+        Assert.assertEquals(health.getState(), EndpointHealth.State.HALF_OPEN);
+        
+        // e.g. the probe's session came up but a NoSuchElementException ended the lease
+        health.releaseProbe();
+        Assert.assertEquals(health.getState(), EndpointHealth.State.OPEN, "Inconclusive probe should reopen the circuit");
+        Assert.assertFalse(health.tryDispatch(), "Next probe should wait for a new cool-down");
+        Assert.assertEquals(health.getTotalFailures(), 1, "Inconclusive probe should not count as a failure");
+        
+        Thread.sleep(COOL_DOWN.toMillis() + 100);
+        Assert.assertTrue(health.tryDispatch(), "Another probe should follow the new cool-down");
+        health.recordSuccess();
+        health.releaseProbe();
+        Assert.assertEquals(health.getState(), EndpointHealth.State.CLOSED, "Releasing a settled probe should do nothing");
+    }
+    
+    private void close(DriverContext context) {
+        SessionWatchdog.unregister(context);
+        context.getDriver().quit();
+        pool.release(context.getEndpoint());
+    }
+}
@@ -0,0 +1,108 @@
+package com.saucelab.listeners;
+
+import com.saucelab.config.ConfigLoader;
+import com.saucelab.sharding.DurationHistory;
+import com.saucelab.sharding.ShardPlanner;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Runs only this machine's share of the suite when -Dshard.count is above 1, and records
+ * how long each test took so the next run can balance shards by time instead of count.
+ * Registered in testng.xml; with the default shard.count=1 it only records durations.
+ */
+public class ShardingListener implements ISuiteListener, IMethodInterceptor, ITestListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(ShardingListener.class);
+    
+    private DurationHistory history;
+    private Set<String> assigned;
+    
+    @Override
+    public void onStart(ISuite suite) {
+        history = DurationHistory.load(Paths.get(ConfigLoader.getShardHistoryFile()));
+        int count = ConfigLoader.getShardCount();
+        int index = ConfigLoader.getShardIndex();
+        if (count <= 1) {
+            return;
+        }
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("shard.index must be between 0 and " + (count - 1) + ", was " + index);
+        }
+        
+        Map<String, List<String>> dependsOn = new HashMap<>();
+        for (ITestNGMethod method : suite.getAllMethods()) {
+            dependsOn.put(method.getQualifiedName(), dependencies(method));
+        }
+        List<ShardPlanner.Shard> plan = ShardPlanner.plan(dependsOn, history, count);
+        log.info("Shard plan ({}):", history.isEmpty() ? "no history, even split" : "by recorded duration");
+        plan.forEach(shard -> log.info("  {}", shard));
+        assigned = plan.get(index).getTests();
+        log.info("Running shard {} of {}", index, count);
+    }
+    
+    /**
+     * Qualified names of the methods a test depends on; TestNG may report them unqualified.
+     */
+    private static List<String> dependencies(ITestNGMethod method) {
+        String className = method.getRealClass().getName();
+        return Arrays.stream(method.getMethodsDependedUpon())
+            .map(name -> name.contains(".") ? name : className + "." + name)
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        if (assigned == null) {
+            return methods;
+        }
+        List<IMethodInstance> kept = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            if (assigned.contains(instance.getMethod().getQualifiedName())) {
+                kept.add(instance);
+            }
+        }
+        log.debug("Shard keeps {} of {} method(s) in <test> '{}'", kept.size(), methods.size(), context.getName());
+        return kept;
+    }
+    
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        recordDuration(result);
+    }
+    
+    @Override
+    public void onTestFailure(ITestResult result) {
+        recordDuration(result);
+    }
+    
+    private void recordDuration(ITestResult result) {
+        if (history != null) {
+            history.record(result.getMethod().getQualifiedName(), result.getEndMillis() - result.getStartMillis());
+        }
+    }
+    
+    @Override
+    public void onFinish(ISuite suite) {
+        if (history != null) {
+            history.save();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.saucelab.listeners;
+
+import com.saucelab.config.ConfigLoader;
+import com.saucelab.driver.DriverManager;
+import com.saucelab.driver.SessionPool;
+import com.saucelab.driver.SessionWatchdog;
+import com.saucelab.metrics.CommandMetrics;
+import com.saucelab.metrics.LocatorMetrics;
+import com.saucelab.metrics.LoginMetrics;
+import com.saucelab.pages.ElementCache;
+import org.testng.IClassListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Suite-level hooks for driver resources that outlive a single test class, plus the end of
+ * each class, where a session its tearDown left open is handed to the session watchdog.
+ * Registered in testng.xml.
+ */
+public class SuiteLifecycleListener implements ISuiteListener, IClassListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(SuiteLifecycleListener.class);
+    
+    @Override
+    public void onStart(ISuite suite) {
+        int prewarm = ConfigLoader.getSessionPrewarmCount();
+        if (prewarm > 0) {
+            log.info("Pre-warming {} session(s) before the first test", prewarm);
+            DriverManager.prewarmSessions(prewarm);
+        }
+    }
+    
+    @Override
+    public void onAfterClass(ITestClass testClass) {
+        // Runs on the class's worker thread after its @AfterClass methods (symmetric listener
+        // execution, see pom.xml); the pool keeps the thread for the next class
+        DriverManager.endOwnership(testClass.getRealClass().getSimpleName());
+    }
+    
+    @Override
+    public void onFinish(ISuite suite) {
+        List<String> report = SessionWatchdog.leakReport();
+        for (String line : report) {
+            if (line.startsWith("LEAKED") || line.startsWith("REAPED")) {
+                log.warn("Session leak report: {}", line);
+            } else {
+                log.info("Session leak report: {}", line);
+            }
+        }
+        SessionWatchdog.reapAll("still open at suite end");
+        log.info("Suite finished, quitting reused and unused pre-warmed sessions");
+        DriverManager.quitAllSessions();
+        log.info("Element cache: {}", ElementCache.globalStats());
+        String logins = LoginMetrics.summaryTable();
+        if (!logins.isEmpty()) {
+            log.info("Login paths\n{}", logins);
+        }
+        String locators = LocatorMetrics.summaryTable();
+        if (!locators.isEmpty()) {
+            log.info("Locator find latency\n{}", locators);
+        }
+        SessionPool.getInstance().healthReport().forEach(line -> log.info("Endpoint health: {}", line));
+        CommandMetrics.report(Paths.get(ConfigLoader.getCommandMetricsOutput()));
+    }
+}
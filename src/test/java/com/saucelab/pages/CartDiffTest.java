@@ -0,0 +1,78 @@
+package com.saucelab.pages;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Matching the expected cart with the lines read from the cart screen.
+ */
+public class CartDiffTest {
+    
+    private static final Money BACKPACK_PRICE = Money.parse("$29.99");
+    private static final Money LIGHT_PRICE = Money.parse("$9.99");
+    
+    @Test(description = "Identical carts have no differences, whatever the screen order")
+    public void testMatchingCartsInAnyOrder() {
+        List<CartLine> expected = Arrays.asList(line("Backpack", 1, BACKPACK_PRICE), line("Bike Light", 2, LIGHT_PRICE));
+        List<CartLine> actual = Arrays.asList(line("Bike Light", 2, LIGHT_PRICE), line("Backpack", 1, BACKPACK_PRICE));
+        
+        CartDiff diff = CartDiff.between(expected, actual);
+        Assert.assertTrue(diff.isEmpty(), diff.toString());
+        Assert.assertEquals(diff.toString(), "cart matches");
+    }
+    
+    @Test(description = "Lines only on one side are reported as missing or unexpected")
+    public void testMissingAndUnexpectedLines() {
+        CartDiff diff = CartDiff.between(
+            Collections.singletonList(line("Backpack", 1, BACKPACK_PRICE)),
+            Collections.singletonList(line("Bike Light", 1, LIGHT_PRICE)));
+        
+        Assert.assertEquals(diff.getMissing(), Collections.singletonList(line("Backpack", 1, BACKPACK_PRICE)));
+        Assert.assertEquals(diff.getUnexpected(), Collections.singletonList(line("Bike Light", 1, LIGHT_PRICE)));
+        Assert.assertTrue(diff.getWrongQuantity().isEmpty());
+        Assert.assertTrue(diff.getWrongPrice().isEmpty());
+    }
+    
+    @Test(description = "Quantity and price differences are reported with both values")
+    public void testWrongQuantityAndPrice() {
+        CartDiff diff = CartDiff.between(
+            Collections.singletonList(line("Backpack", 2, BACKPACK_PRICE)),
+            Collections.singletonList(line("Backpack", 1, Money.parse("$39.99"))));
+        
+        Assert.assertEquals(diff.getWrongQuantity().size(), 1);
+        Assert.assertEquals(diff.getWrongQuantity().get(0).getExpected(), "2");
+        Assert.assertEquals(diff.getWrongQuantity().get(0).getActual(), "1");
+        Assert.assertEquals(diff.getWrongPrice().size(), 1);
+        Assert.assertEquals(diff.getWrongPrice().get(0).getExpected(), "$29.99");
+        Assert.assertEquals(diff.getWrongPrice().get(0).getActual(), "$39.99");
+    }
+    
+    @Test(description = "An unknown expected price is not checked, an unreadable screen price is")
+    public void testPriceCheckedOnlyWhenKnown() {
+        Assert.assertTrue(CartDiff.between(
+            Collections.singletonList(line("Backpack", 1, null)),
+            Collections.singletonList(line("Backpack", 1, BACKPACK_PRICE))).isEmpty());
+        
+        CartDiff unreadable = CartDiff.between(
+            Collections.singletonList(line("Backpack", 1, BACKPACK_PRICE)),
+            Collections.singletonList(line("Backpack", 1, null)));
+        Assert.assertEquals(unreadable.getWrongPrice().size(), 1);
+        Assert.assertEquals(unreadable.getWrongPrice().get(0).getActual(), "null");
+    }
+    
+    @Test(description = "Screen lines with the same name are added up before comparing")
+    public void testDuplicateScreenLinesAreSummed() {
+        CartDiff diff = CartDiff.between(
+            Collections.singletonList(line("Backpack", 2, BACKPACK_PRICE)),
+            Arrays.asList(line("Backpack", 1, BACKPACK_PRICE), line("Backpack", 1, BACKPACK_PRICE)));
+        Assert.assertTrue(diff.isEmpty(), diff.toString());
+    }
+    
+    private static CartLine line(String name, int quantity, Money price) {
+        return new CartLine(name, quantity, price);
+    }
+}
@@ -0,0 +1,60 @@
+package com.saucelab.pages;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeping the expected cart in step with adds and removes.
+ */
+public class ExpectedCartTest {
+    
+    private static final Money BACKPACK_PRICE = Money.parse("$29.99");
+    
+    @Test(description = "Adding a product again raises its quantity and keeps the line order")
+    public void testAddCountsUnitsInOrder() {
+        ExpectedCart cart = new ExpectedCart();
+        cart.add("Backpack", BACKPACK_PRICE);
+        cart.add("Bike Light", null);
+        cart.add("Backpack", BACKPACK_PRICE);
+        
+        List<CartLine> lines = cart.getLines();
+        Assert.assertEquals(lines, Arrays.asList(
+            new CartLine("Backpack", 2, BACKPACK_PRICE), new CartLine("Bike Light", 1, null)));
+    }
+    
+    @Test(description = "Adding again without a price keeps the price already known")
+    public void testAddWithoutPriceKeepsKnownPrice() {
+        ExpectedCart cart = new ExpectedCart();
+        cart.add("Backpack", BACKPACK_PRICE);
+        cart.add("Backpack", null);
+        
+        Assert.assertEquals(cart.getLines(), Collections.singletonList(new CartLine("Backpack", 2, BACKPACK_PRICE)));
+    }
+    
+    @Test(description = "Removing matches by name and ignores unknown or unreadable names")
+    public void testRemoveByName() {
+        ExpectedCart cart = new ExpectedCart();
+        cart.add("Backpack", BACKPACK_PRICE);
+        cart.add("Bike Light", null);
+        
+        cart.remove(null);
+        cart.remove("Onesie");
+        Assert.assertEquals(cart.getLines().size(), 2);
+        
+        cart.remove("Backpack");
+        Assert.assertEquals(cart.getLines(), Collections.singletonList(new CartLine("Bike Light", 1, null)));
+    }
+    
+    @Test(description = "The diff compares the expected lines with the screen")
+    public void testDiffAgainstScreen() {
+        ExpectedCart cart = new ExpectedCart();
+        cart.add("Backpack", BACKPACK_PRICE);
+        
+        Assert.assertTrue(cart.diff(Collections.singletonList(new CartLine("Backpack", 1, BACKPACK_PRICE))).isEmpty());
+        Assert.assertEquals(cart.diff(Collections.emptyList()).getMissing().size(), 1);
+    }
+}
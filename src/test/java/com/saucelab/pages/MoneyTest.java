@@ -0,0 +1,84 @@
+package com.saucelab.pages;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Price label parsing and comparison, including the malformed labels a screen can show.
+ */
+public class MoneyTest {
+    
+    @DataProvider
+    public Object[][] validPrices() {
+        return new Object[][] {
+            {"$29.99", 2999L, '$'},
+            {"  $29.99 ", 2999L, '$'},
+            {"$7", 700L, '$'},
+            {"$7.5", 750L, '$'},
+            {"29.99", 2999L, (char) 0},
+            {"$1,299.50", 129950L, '$'},
+            {"$12,345,678", 1234567800L, '$'},
+            {"-$5", -500L, '$'},
+            {"$-5", -500L, '$'},
+            {"-5.25", -525L, (char) 0},
+            {"\u20ac0.99", 99L, '\u20ac'},
+        };
+    }
+    
+    @Test(dataProvider = "validPrices", description = "Well-formed labels parse to exact cents")
+    public void testParsesValidPrices(String label, long cents, char currency) {
+        Money money = Money.parse(label);
+        Assert.assertEquals(money.getCents(), cents, label);
+        Assert.assertEquals(money.getCurrency(), currency, label);
+    }
+    
+    @DataProvider
+    public Object[][] invalidPrices() {
+        return new Object[][] {
+            {""}, {"   "}, {"$"}, {"-$"}, {"$-"}, {"-"},
+            {"$5."}, {"$.5"}, {"$5.999"}, {"$5.9.9"},
+            {"$1,29"}, {"$,129"}, {"$1,2345"}, {"$1234,567"}, {"$1,"}, {"$1,,234"}, {"$1,23.45"}, {"$1.234,56"},
+            {"$--5"}, {"--5"}, {"-$-5"}, {"$ 5"}, {"$5 $"}, {"five"}, {"$+5"},
+            {"$99999999999999999999"},
+        };
+    }
+    
+    @Test(dataProvider = "invalidPrices", description = "Malformed labels are rejected, not misread")
+    public void testRejectsInvalidPrices(String label) {
+        Assert.assertNull(Money.parseOrNull(label), "Should not parse: '" + label + "'");
+    }
+    
+    @Test(description = "A null label is rejected", expectedExceptions = NumberFormatException.class)
+    public void testRejectsNull() {
+        Money.parse(null);
+    }
+    
+    @Test(description = "Sign before or after the symbol gives the same amount")
+    public void testSignPositionIsEquivalent() {
+        Assert.assertEquals(Money.parse("$-5"), Money.parse("-$5"));
+        Assert.assertEquals(Money.parse("$-5").toString(), "-$5.00");
+    }
+    
+    @Test(description = "compareTo orders same-currency amounts and agrees with equals")
+    public void testCompareToConsistentWithEquals() {
+        Money a = Money.parse("$29.99");
+        Money b = Money.ofCents(2999, '$');
+        Assert.assertEquals(a.compareTo(b), 0);
+        Assert.assertEquals(a, b);
+        Assert.assertTrue(Money.parse("$9.99").compareTo(a) < 0);
+        Assert.assertTrue(Money.parse("$1,000").compareTo(a) > 0);
+    }
+    
+    @Test(description = "Amounts in different currencies are not comparable",
+          expectedExceptions = IllegalArgumentException.class)
+    public void testCompareToRejectsOtherCurrency() {
+        Money.parse("$5").compareTo(Money.parse("\u20ac5"));
+    }
+    
+    @Test(description = "Amounts in different currencies are never equal")
+    public void testEqualsIncludesCurrency() {
+        Assert.assertNotEquals(Money.parse("$5"), Money.parse("\u20ac5"));
+        Assert.assertNotEquals(Money.parse("$5"), Money.parse("5"));
+    }
+}
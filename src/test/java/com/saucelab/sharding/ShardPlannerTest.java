@@ -0,0 +1,116 @@
+package com.saucelab.sharding;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plans splits for a small, known suite and checks their invariants and balance.
+ */
+public class ShardPlannerTest {
+    
+    private static final String A = "Suite.a";
+    private static final String B1 = "Suite.b1";
+    private static final String B2 = "Suite.b2";
+    private static final String B3 = "Suite.b3";
+    private static final String C = "Suite.c";
+    private static final String D = "Suite.d";
+    private static final String E = "Suite.e";
+    
+    /**
+     * b3 depends on b2, which depends on b1; the others are independent.
+     */
+    private static Map<String, List<String>> suite() {
+        Map<String, List<String>> dependsOn = new LinkedHashMap<>();
+        dependsOn.put(A, Collections.emptyList());
+        dependsOn.put(B1, Collections.emptyList());
+        dependsOn.put(B2, Collections.singletonList(B1));
+        dependsOn.put(B3, Arrays.asList(B2, "Other.notInSuite"));
+        dependsOn.put(C, Collections.emptyList());
+        dependsOn.put(D, Collections.emptyList());
+        dependsOn.put(E, Collections.emptyList());
+        return dependsOn;
+    }
+    
+    private static DurationHistory history(Map<String, Long> millis) throws IOException {
+        Path file = Files.createTempFile("test-durations", ".properties");
+        Files.delete(file);
+        DurationHistory history = DurationHistory.load(file);
+        millis.forEach(history::record);
+        return history;
+    }
+    
+    @Test(description = "Every test lands in exactly one shard")
+    public void testEveryTestPlannedOnce() throws IOException {
+        for (int shardCount = 1; shardCount <= 8; shardCount++) {
+            List<ShardPlanner.Shard> shards = ShardPlanner.plan(suite(), history(Collections.emptyMap()), shardCount);
+            Assert.assertEquals(shards.size(), shardCount);
+            Map<String, Integer> seen = new HashMap<>();
+            for (ShardPlanner.Shard shard : shards) {
+                for (String test : shard.getTests()) {
+                    Integer previous = seen.put(test, shard.getIndex());
+                    Assert.assertNull(previous, test + " planned on shards " + previous + " and " + shard.getIndex());
+                }
+            }
+            Assert.assertEquals(seen.keySet(), suite().keySet(), "With " + shardCount + " shard(s)");
+        }
+    }
+    
+    @Test(description = "A dependsOnMethods chain stays on one shard")
+    public void testDependencyChainKeptTogether() throws IOException {
+        for (int shardCount = 1; shardCount <= 8; shardCount++) {
+            for (ShardPlanner.Shard shard : ShardPlanner.plan(suite(), history(Collections.emptyMap()), shardCount)) {
+                Set<String> tests = shard.getTests();
+                boolean hasAny = tests.contains(B1) || tests.contains(B2) || tests.contains(B3);
+                boolean hasAll = tests.contains(B1) && tests.contains(B2) && tests.contains(B3);
+                Assert.assertEquals(hasAny, hasAll, "Chain split across shards: " + shard + " " + tests);
+            }
+        }
+    }
+    
+    @Test(description = "Shards are balanced by recorded duration")
+    public void testBalancedForKnownHistory() throws IOException {
+        Map<String, Long> millis = new HashMap<>();
+        millis.put(A, 100L);
+        millis.put(B1, 50L);
+        millis.put(B2, 30L);
+        millis.put(B3, 20L);
+        millis.put(C, 50L);
+        millis.put(D, 30L);
+        millis.put(E, 20L);
+        
+        // Chains: a=100, b1..b3=100, c=50, d=30, e=20; 300 ms in total splits evenly
+        List<ShardPlanner.Shard> shards = ShardPlanner.plan(suite(), history(millis), 2);
+        Assert.assertEquals(shards.get(0).getEstimatedMillis(), 150, "Shard 0: " + shards.get(0).getTests());
+        Assert.assertEquals(shards.get(1).getEstimatedMillis(), 150, "Shard 1: " + shards.get(1).getTests());
+        Assert.assertTrue(shards.get(0).getTests().contains(A));
+        Assert.assertTrue(shards.get(1).getTests().contains(B1));
+        
+        // Same history, same plan
+        Assert.assertEquals(ShardPlanner.plan(suite(), history(millis), 2).get(0).getTests(), shards.get(0).getTests());
+    }
+    
+    @Test(description = "With no history the split is even by test count")
+    public void testEvenSplitWithoutHistory() throws IOException {
+        List<ShardPlanner.Shard> shards = ShardPlanner.plan(suite(), history(Collections.emptyMap()), 2);
+        // Seven tests, the three-test chain on one side
+        Assert.assertEquals(shards.get(0).getEstimatedMillis() + shards.get(1).getEstimatedMillis(), 7);
+        Assert.assertTrue(Math.abs(shards.get(0).getEstimatedMillis() - shards.get(1).getEstimatedMillis()) <= 1,
+            "Unbalanced: " + shards);
+    }
+    
+    @Test(description = "Fewer than one shard is rejected", expectedExceptions = IllegalArgumentException.class)
+    public void testRejectsZeroShards() throws IOException {
+        ShardPlanner.plan(suite(), history(Collections.emptyMap()), 0);
+    }
+}
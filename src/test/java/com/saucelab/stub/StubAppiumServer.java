@@ -0,0 +1,649 @@
+package com.saucelab.stub;
+
+import com.saucelab.pages.PageSnapshot;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.By;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for an Appium server driving the Swag Labs app.
+ * Implements the W3C WebDriver / Appium endpoints used by {@code DriverManager} and the
+ * page objects against a scripted {@link SwagLabsApp} model, with configurable per-command latency.
+ * Lets the page objects and the suite run on plain Linux without an emulator.
+ */
+public class StubAppiumServer implements AutoCloseable {
+    
+    private static final Logger log = LoggerFactory.getLogger(StubAppiumServer.class);
+    
+    public static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    
+    private static final Pattern SELECTOR_CALL =
+        Pattern.compile("\\.(\\w+)\\((?:\"((?:[^\"\\\\]|\\\\.)*)\"|(true|false|\\d+))\\)");
+    
+    static {
+        // Without TCP_NODELAY each small JSON reply waits on delayed ACKs (~40 ms on loopback)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+    
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Json json = new Json();
+    private final Map<String, StubSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Duration> commandLatency = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> commandCounts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> pendingFailures = new ConcurrentHashMap<>();
+    private volatile Duration defaultLatency = Duration.ZERO;
+    private volatile boolean failing;
+    private volatile boolean appInstalled = true;
+    private volatile boolean deepLinks = true;
+    
+    private StubAppiumServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+    
+    /**
+     * Starts a stand-in server on the loopback interface.
+     * @param port The port to listen on, or 0 for any free port
+     * @return The running server
+     */
+    public static StubAppiumServer start(int port) {
+        try {
+            HttpServer http = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+            ExecutorService executor = Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "stub-appium-" + http.getAddress().getPort());
+                t.setDaemon(true);
+                return t;
+            });
+            StubAppiumServer stub = new StubAppiumServer(http, executor);
+            http.createContext("/", stub::handle);
+            http.setExecutor(executor);
+            http.start();
+            log.info("Stand-in Appium server listening on {}", stub.getUrl());
+            return stub;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start stand-in Appium server on port " + port, e);
+        }
+    }
+    
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    /**
+     * Sets the latency added to every command without its own override.
+     */
+    public StubAppiumServer withLatency(Duration latency) {
+        this.defaultLatency = latency;
+        return this;
+    }
+    
+    /**
+     * Sets the latency for one command, e.g. "findElement", "click", "getPageSource" or "newSession".
+     * "xpathDump" is added on top of the find command for every XPath lookup.
+     */
+    public StubAppiumServer withLatency(String command, Duration latency) {
+        commandLatency.put(command, latency);
+        return this;
+    }
+    
+    /**
+     * Makes the next {@code times} calls of a command fail like a crashed UiAutomator2 server:
+     * "session not created" for "newSession", "invalid session id" for any other command.
+     */
+    public StubAppiumServer failNext(String command, int times) {
+        pendingFailures.computeIfAbsent(command, k -> new AtomicLong()).set(times);
+        return this;
+    }
+    
+    /**
+     * Fails every command until switched off again, like an emulator that stopped responding.
+     */
+    public StubAppiumServer setFailing(boolean failing) {
+        this.failing = failing;
+        return this;
+    }
+    
+    /**
+     * Sets whether the app is already on the device. Sessions that name only appPackage fail
+     * while it is not; a session with the app capability installs it (timed as "installApp").
+     */
+    public StubAppiumServer withAppInstalled(boolean installed) {
+        this.appInstalled = installed;
+        return this;
+    }
+    
+    /**
+     * Sets whether the app handles swaglabs:// deep links (older builds do not).
+     */
+    public StubAppiumServer withDeepLinks(boolean supported) {
+        this.deepLinks = supported;
+        return this;
+    }
+    
+    /**
+     * Gets how many times each command was served.
+     * @return Command name to count
+     */
+    public Map<String, Long> getCommandCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        commandCounts.forEach((command, count) -> counts.put(command, count.get()));
+        return counts;
+    }
+    
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        log.info("Stand-in Appium server on port {} stopped", getPort());
+    }
+    
+    // ==================== HTTP ====================
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            Reply reply = dispatch(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), readBody(exchange));
+            send(exchange, reply.status, json.toJson(Collections.singletonMap("value", reply.value)));
+        } catch (RuntimeException e) {
+            send(exchange, 500, json.toJson(Collections.singletonMap("value", error("unknown error", String.valueOf(e)))));
+        }
+    }
+    
+    private Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            if (body.isBlank()) {
+                return Collections.emptyMap();
+            }
+            return json.toType(body, Json.MAP_TYPE);
+        }
+    }
+    
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+    
+    private Reply dispatch(String method, String path, Map<String, Object> body) {
+        String[] parts = path.replaceAll("^/+|/+$", "").split("/");
+        if (parts.length == 1 && "status".equals(parts[0])) {
+            return command("status", () -> Reply.ok(Collections.singletonMap("ready", true)));
+        }
+        if (parts.length == 0 || !"session".equals(parts[0])) {
+            return Reply.unknownCommand(method, path);
+        }
+        if (parts.length == 1 && "POST".equals(method)) {
+            return command("newSession", () -> newSession(body));
+        }
+        StubSession session = parts.length > 1 ? sessions.get(parts[1]) : null;
+        if (session == null) {
+            return new Reply(404, error("invalid session id", "No active session " + (parts.length > 1 ? parts[1] : "")));
+        }
+        String route = method + " " + String.join("/", java.util.Arrays.copyOfRange(parts, 2, parts.length));
+        synchronized (session) {
+            return route(session, route, parts, body);
+        }
+    }
+    
+    private Reply route(StubSession session, String route, String[] parts, Map<String, Object> body) {
+        if ("DELETE ".equals(route)) {
+            return command("deleteSession", () -> {
+                sessions.remove(session.id);
+                return Reply.ok(null);
+            });
+        }
+        switch (route) {
+            case "POST timeouts":
+                return command("setTimeouts", () -> {
+                    if (body.get("implicit") instanceof Number) {
+                        session.implicitWaitMillis = ((Number) body.get("implicit")).longValue();
+                    }
+                    return Reply.ok(null);
+                });
+            case "GET timeouts":
+                return command("getTimeouts", () -> Reply.ok(Collections.singletonMap("implicit", session.implicitWaitMillis)));
+            case "POST element":
+                return command("findElement", () -> findElement(session, body));
+            case "POST elements":
+                return command("findElements", () -> Reply.ok(toReferences(find(session, body))));
+            case "GET source":
+                return command("getPageSource", () -> Reply.ok(pageSource(session.app.render(), false)));
+            case "POST appium/device/terminate_app":
+                return command("terminateApp", () -> {
+                    session.app.terminate();
+                    return Reply.ok(true);
+                });
+            case "POST appium/device/activate_app":
+                return command("activateApp", () -> {
+                    session.app.activate();
+                    return Reply.ok(null);
+                });
+            case "POST execute/sync":
+                return command("executeScript", () -> executeScript(session, body));
+            case "GET appium/settings":
+                return command("getSettings", () -> Reply.ok(new HashMap<>(session.settings)));
+            case "POST appium/settings":
+                return command("updateSettings", () -> {
+                    Object settings = body.get("settings");
+                    if (settings instanceof Map) {
+                        ((Map<?, ?>) settings).forEach((k, v) -> session.settings.put(String.valueOf(k), v));
+                    }
+                    return Reply.ok(null);
+                });
+            default:
+                break;
+        }
+        if (parts.length >= 5 && "element".equals(parts[2])) {
+            return elementCommand(session, route.substring(0, route.indexOf(' ')), parts[3], parts, body);
+        }
+        return Reply.unknownCommand(route, "");
+    }
+    
+    private Reply elementCommand(StubSession session, String method, String elementId, String[] parts, Map<String, Object> body) {
+        String action = parts[4];
+        String name = "GET".equals(method) ? "get" + capitalize(action) : action;
+        if ("attribute".equals(action)) {
+            name = "getAttribute";
+        } else if ("value".equals(action)) {
+            name = "sendKeys";
+        } else if ("displayed".equals(action) || "enabled".equals(action) || "selected".equals(action)) {
+            name = "is" + capitalize(action);
+        } else if ("element".equals(action) || "elements".equals(action)) {
+            name = "findChild" + capitalize(action);
+        }
+        return command(name, () -> {
+            StubNode node = resolve(session, elementId);
+            if (node == null) {
+                return new Reply(404, error("stale element reference", "Element " + elementId + " is no longer on screen"));
+            }
+            switch (method + " " + action) {
+                case "POST click":
+                    Runnable handler = node.clickHandler();
+                    if (handler != null) {
+                        handler.run();
+                    }
+                    return Reply.ok(null);
+                case "POST clear":
+                    session.app.clearField(node.key);
+                    return Reply.ok(null);
+                case "POST value":
+                    session.app.typeInto(node.key, String.valueOf(body.getOrDefault("text", "")));
+                    return Reply.ok(null);
+                case "GET text":
+                    return Reply.ok(node.text);
+                case "GET displayed":
+                case "GET enabled":
+                    return Reply.ok(true);
+                case "GET selected":
+                    return Reply.ok(false);
+                case "GET name":
+                    return Reply.ok(node.className);
+                case "GET rect":
+                    Map<String, Object> rect = new LinkedHashMap<>();
+                    rect.put("x", node.x);
+                    rect.put("y", node.y);
+                    rect.put("width", node.width);
+                    rect.put("height", node.height);
+                    return Reply.ok(rect);
+                case "GET attribute":
+                    return Reply.ok(attribute(node, parts.length > 5 ? parts[5] : ""));
+                case "POST elements":
+                    return Reply.ok(toReferences(findWithin(session, node, body)));
+                case "POST element":
+                    List<StubNode> within = findWithin(session, node, body);
+                    if (within.isEmpty()) {
+                        sleep(session.implicitWaitMillis);
+                        return new Reply(404, error("no such element",
+                            "An element could not be located using " + body.get("using") + "=" + body.get("value")));
+                    }
+                    return Reply.ok(toReferences(within).get(0));
+                default:
+                    return Reply.unknownCommand(method, action);
+            }
+        });
+    }
+    
+    // ==================== COMMANDS ====================
+    
+    private Reply command(String name, java.util.function.Supplier<Reply> body) {
+        commandCounts.computeIfAbsent(name, k -> new AtomicLong()).incrementAndGet();
+        sleep(commandLatency.getOrDefault(name, defaultLatency).toMillis());
+        AtomicLong pending = pendingFailures.get(name);
+        if (failing || (pending != null && pending.getAndUpdate(n -> Math.max(0, n - 1)) > 0)) {
+            return "newSession".equals(name)
+                ? new Reply(500, error("session not created", "Injected failure for " + name))
+                : new Reply(404, error("invalid session id", "Injected failure for " + name));
+        }
+        return body.get();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Reply newSession(Map<String, Object> body) {
+        Map<String, Object> capabilities = new LinkedHashMap<>();
+        Object requested = body.get("capabilities");
+        if (requested instanceof Map) {
+            Object alwaysMatch = ((Map<String, Object>) requested).get("alwaysMatch");
+            if (alwaysMatch instanceof Map) {
+                capabilities.putAll((Map<String, Object>) alwaysMatch);
+            }
+        }
+        capabilities.putIfAbsent("platformName", "Android");
+        capabilities.put("appium:deviceName", capabilities.getOrDefault("appium:deviceName", "stub-device"));
+        if (capabilities.containsKey("appium:app")) {
+            // Real servers hash, push and (re)install the APK before starting the app
+            command("installApp", () -> Reply.ok(null));
+            appInstalled = true;
+        } else if (!appInstalled) {
+            return new Reply(500, error("session not created",
+                "App '" + capabilities.get("appium:appPackage") + "' is not installed on the device"));
+        }
+        StubSession session = new StubSession(UUID.randomUUID().toString());
+        sessions.put(session.id, session);
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("sessionId", session.id);
+        value.put("capabilities", capabilities);
+        return Reply.ok(value);
+    }
+    
+    private Reply findElement(StubSession session, Map<String, Object> body) {
+        List<StubNode> found = find(session, body);
+        if (found.isEmpty()) {
+            // Real servers keep polling for the implicit wait; the model never changes on its own
+            sleep(session.implicitWaitMillis);
+            return new Reply(404, error("no such element",
+                "An element could not be located using " + body.get("using") + "=" + body.get("value")));
+        }
+        return Reply.ok(toReferences(found).get(0));
+    }
+    
+    /**
+     * Finds matches among the descendants of an element, like a find scoped to that element.
+     */
+    private List<StubNode> findWithin(StubSession session, StubNode parent, Map<String, Object> body) {
+        List<StubNode> subtree = new ArrayList<>();
+        parent.collect(subtree);
+        Set<String> keys = new HashSet<>();
+        for (StubNode node : subtree.subList(1, subtree.size())) {
+            keys.add(node.key);
+        }
+        List<StubNode> matches = new ArrayList<>();
+        for (StubNode node : find(session, body)) {
+            if (keys.contains(node.key)) {
+                matches.add(node);
+            }
+        }
+        return matches;
+    }
+    
+    private List<StubNode> find(StubSession session, Map<String, Object> body) {
+        String using = String.valueOf(body.get("using"));
+        String value = String.valueOf(body.get("value"));
+        StubNode root = session.app.render();
+        List<StubNode> all = new ArrayList<>();
+        root.collect(all);
+        List<StubNode> matches = new ArrayList<>();
+        switch (using) {
+            case "accessibility id":
+                for (StubNode node : all) {
+                    if (value.equals(node.contentDesc)) {
+                        matches.add(node);
+                    }
+                }
+                break;
+            case "class name":
+                for (StubNode node : all) {
+                    if (value.equals(node.className)) {
+                        matches.add(node);
+                    }
+                }
+                break;
+            case "xpath":
+                // UiAutomator2 dumps the whole hierarchy to evaluate an XPath
+                sleep(commandLatency.getOrDefault("xpathDump", Duration.ZERO).toMillis());
+                Map<String, StubNode> byKey = new HashMap<>();
+                for (StubNode node : all) {
+                    byKey.put(node.key, node);
+                }
+                for (PageSnapshot.SnapshotNode hit : PageSnapshot.parse(pageSource(root, true)).find(By.xpath(value))) {
+                    StubNode node = byKey.get(hit.getAttribute("stub-key"));
+                    if (node != null) {
+                        matches.add(node);
+                    }
+                }
+                break;
+            case "-android uiautomator":
+                matches.addAll(uiAutomator(session, value));
+                break;
+            default:
+                break;
+        }
+        return matches;
+    }
+    
+    /**
+     * Evaluates the UiSelector / UiScrollable expressions the page objects use.
+     */
+    private List<StubNode> uiAutomator(StubSession session, String expression) {
+        if (expression.contains("UiScrollable")) {
+            if (expression.contains(".scrollForward()")) {
+                session.app.scrollForward();
+                return byFilter(session, "new UiSelector().scrollable(true)");
+            }
+            int target = expression.indexOf(".scrollIntoView(");
+            if (target >= 0) {
+                String selector = expression.substring(target + ".scrollIntoView(".length());
+                Matcher text = SELECTOR_CALL.matcher(selector);
+                if (text.find() && text.group(2) != null) {
+                    session.app.scrollIntoView(text.group(2));
+                }
+                return byFilter(session, selector);
+            }
+        }
+        return byFilter(session, expression);
+    }
+    
+    private List<StubNode> byFilter(StubSession session, String selector) {
+        List<StubNode> all = new ArrayList<>();
+        session.app.render().collect(all);
+        Matcher call = SELECTOR_CALL.matcher(selector);
+        while (call.find()) {
+            String method = call.group(1);
+            String arg = call.group(2) != null ? call.group(2).replace("\\\"", "\"") : call.group(3);
+            all.removeIf(node -> !matchesSelector(node, method, arg));
+        }
+        return all;
+    }
+    
+    private static boolean matchesSelector(StubNode node, String method, String arg) {
+        switch (method) {
+            case "text":
+                return node.text.equals(arg);
+            case "textContains":
+                return node.text.contains(arg);
+            case "textStartsWith":
+                return node.text.startsWith(arg);
+            case "description":
+                return node.contentDesc.equals(arg);
+            case "descriptionContains":
+                return node.contentDesc.contains(arg);
+            case "className":
+                return node.className.equals(arg);
+            case "scrollable":
+                return node.scrollable == Boolean.parseBoolean(arg);
+            default:
+                return true;
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Reply executeScript(StubSession session, Map<String, Object> body) {
+        String script = String.valueOf(body.get("script"));
+        Map<String, Object> args = Collections.emptyMap();
+        Object rawArgs = body.get("args");
+        if (rawArgs instanceof List && !((List<?>) rawArgs).isEmpty() && ((List<?>) rawArgs).get(0) instanceof Map) {
+            args = (Map<String, Object>) ((List<?>) rawArgs).get(0);
+        }
+        switch (script) {
+            case "mobile: clearApp":
+                session.app.clearData();
+                return Reply.ok(true);
+            case "mobile: terminateApp":
+                session.app.terminate();
+                return Reply.ok(true);
+            case "mobile: activateApp":
+                session.app.activate();
+                return Reply.ok(null);
+            case "mobile: deepLink":
+                if (!deepLinks) {
+                    return new Reply(500, error("unknown error", "No activity handles " + args.get("url")));
+                }
+                return session.app.openDeepLink(String.valueOf(args.get("url")))
+                    ? Reply.ok(null)
+                    : new Reply(500, error("unknown error", "No activity handles " + args.get("url")));
+            default:
+                return new Reply(404, error("unknown method", "Script not supported by the stand-in server: " + script
+                    + " " + args.keySet()));
+        }
+    }
+    
+    private StubNode resolve(StubSession session, String elementId) {
+        List<StubNode> all = new ArrayList<>();
+        session.app.render().collect(all);
+        for (StubNode node : all) {
+            if (node.key.equals(elementId)) {
+                return node;
+            }
+        }
+        return null;
+    }
+    
+    private static Object attribute(StubNode node, String name) {
+        switch (name) {
+            case "text":
+                return node.text;
+            case "content-desc":
+            case "contentDescription":
+                return node.contentDesc;
+            case "class":
+            case "className":
+                return node.className;
+            case "bounds":
+                return node.bounds();
+            case "displayed":
+            case "enabled":
+                return "true";
+            case "clickable":
+                return String.valueOf(node.onClick != null);
+            case "scrollable":
+                return String.valueOf(node.scrollable);
+            default:
+                return null;
+        }
+    }
+    
+    private static List<Map<String, String>> toReferences(List<StubNode> nodes) {
+        List<Map<String, String>> references = new ArrayList<>();
+        for (StubNode node : nodes) {
+            Map<String, String> reference = new LinkedHashMap<>();
+            reference.put(ELEMENT_KEY, node.key);
+            reference.put("ELEMENT", node.key);
+            references.add(reference);
+        }
+        return references;
+    }
+    
+    private static String pageSource(StubNode root, boolean withKeys) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?><hierarchy index=\"0\" class=\"hierarchy\" rotation=\"0\" width=\"1080\" height=\"2280\">");
+        root.render(xml, 0, withKeys);
+        return xml.append("</hierarchy>").toString();
+    }
+    
+    private static Map<String, String> error(String error, String message) {
+        Map<String, String> value = new LinkedHashMap<>();
+        value.put("error", error);
+        value.put("message", message);
+        value.put("stacktrace", "");
+        return value;
+    }
+    
+    private static String capitalize(String value) {
+        return value.isEmpty() ? value : Character.toUpperCase(value.charAt(0)) + value.substring(1);
+    }
+    
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static final class StubSession {
+        final String id;
+        final SwagLabsApp app = new SwagLabsApp();
+        final Map<String, Object> settings = new ConcurrentHashMap<>();
+        long implicitWaitMillis;
+        
+        StubSession(String id) {
+            this.id = id;
+        }
+    }
+    
+    private static final class Reply {
+        final int status;
+        final Object value;
+        
+        Reply(int status, Object value) {
+            this.status = status;
+            this.value = value;
+        }
+        
+        static Reply ok(Object value) {
+            return new Reply(200, value);
+        }
+        
+        static Reply unknownCommand(String method, String path) {
+            return new Reply(404, error("unknown command", "Stand-in server does not implement " + method + " " + path));
+        }
+    }
+}
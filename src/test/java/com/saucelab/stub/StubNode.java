@@ -0,0 +1,111 @@
+package com.saucelab.stub;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One view in the stand-in app's UI tree.
+ * The key is stable across renders of the same screen and doubles as the W3C element id,
+ * so an element id goes stale exactly when its view leaves the screen.
+ */
+final class StubNode {
+    
+    final String className;
+    final String key;
+    final List<StubNode> children = new ArrayList<>();
+    String text = "";
+    String contentDesc = "";
+    boolean scrollable;
+    int x;
+    int y;
+    int width;
+    int height;
+    Runnable onClick;
+    StubNode parent;
+    
+    StubNode(String className, String key) {
+        this.className = className;
+        this.key = key;
+    }
+    
+    StubNode text(String value) {
+        this.text = value;
+        return this;
+    }
+    
+    StubNode desc(String value) {
+        this.contentDesc = value;
+        return this;
+    }
+    
+    StubNode bounds(int x, int y, int width, int height) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        return this;
+    }
+    
+    StubNode onClick(Runnable action) {
+        this.onClick = action;
+        return this;
+    }
+    
+    StubNode add(StubNode child) {
+        child.parent = this;
+        children.add(child);
+        return child;
+    }
+    
+    String bounds() {
+        return "[" + x + "," + y + "][" + (x + width) + "," + (y + height) + "]";
+    }
+    
+    /**
+     * Finds the click handler for this view, bubbling up to the nearest clickable ancestor.
+     */
+    Runnable clickHandler() {
+        for (StubNode node = this; node != null; node = node.parent) {
+            if (node.onClick != null) {
+                return node.onClick;
+            }
+        }
+        return null;
+    }
+    
+    void collect(List<StubNode> out) {
+        out.add(this);
+        for (StubNode child : children) {
+            child.collect(out);
+        }
+    }
+    
+    void render(StringBuilder xml, int index, boolean withKeys) {
+        xml.append('<').append(className)
+            .append(" index=\"").append(index).append('"')
+            .append(" package=\"").append(SwagLabsApp.PACKAGE).append('"')
+            .append(" class=\"").append(className).append('"')
+            .append(" text=\"").append(escape(text)).append('"')
+            .append(" content-desc=\"").append(escape(contentDesc)).append('"')
+            .append(" clickable=\"").append(onClick != null).append('"')
+            .append(" enabled=\"true\" displayed=\"true\"")
+            .append(" scrollable=\"").append(scrollable).append('"')
+            .append(" bounds=\"").append(bounds()).append('"');
+        if (withKeys) {
+            xml.append(" stub-key=\"").append(escape(key)).append('"');
+        }
+        if (children.isEmpty()) {
+            xml.append("/>");
+            return;
+        }
+        xml.append('>');
+        for (int i = 0; i < children.size(); i++) {
+            children.get(i).render(xml, i, withKeys);
+        }
+        xml.append("</").append(className).append('>');
+    }
+    
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,54 @@
+package com.saucelab.stub;
+
+import com.saucelab.config.ConfigLoader;
+import com.saucelab.driver.DeviceEndpoint;
+import com.saucelab.driver.SessionPool;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the suite against in-process stand-in Appium servers instead of real devices.
+ * Starts stub.devices servers (one per pool endpoint) with stub.latency.ms latency per command
+ * (plus stub.xpath.latency.ms per XPath lookup, modelling the hierarchy dump)
+ * and points the session pool at them. -Dstub.deeplinks=false models an app without deep links. Enabled by the "stub" Maven profile.
+ */
+public class StubSuiteListener implements ISuiteListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(StubSuiteListener.class);
+    
+    private final List<StubAppiumServer> servers = new ArrayList<>();
+    
+    @Override
+    public void onStart(ISuite suite) {
+        int devices = ConfigLoader.getIntProperty("stub.devices", 2);
+        Duration latency = Duration.ofMillis(ConfigLoader.getIntProperty("stub.latency.ms", 0));
+        Duration xpathLatency = Duration.ofMillis(ConfigLoader.getIntProperty("stub.xpath.latency.ms", 20));
+        // The stand-in app is always "installed", so never look for the APK
+        ConfigLoader.override("app.path", "");
+        
+        List<DeviceEndpoint> endpoints = new ArrayList<>();
+        for (int i = 0; i < devices; i++) {
+            StubAppiumServer server = StubAppiumServer.start(0).withLatency(latency)
+                .withLatency("xpathDump", xpathLatency)
+                .withDeepLinks(Boolean.parseBoolean(ConfigLoader.getProperty("stub.deeplinks", "true")));
+            servers.add(server);
+            endpoints.add(new DeviceEndpoint("stub-" + i, server.getUrl(), "stub-emulator-" + i, ConfigLoader.getPlatformVersion()));
+        }
+        SessionPool.setInstance(new SessionPool(endpoints, Duration.ofSeconds(ConfigLoader.getPoolAcquireTimeout())));
+        log.info("Suite '{}' will run against {} stand-in server(s)", suite.getName(), devices);
+    }
+    
+    @Override
+    public void onFinish(ISuite suite) {
+        for (StubAppiumServer server : servers) {
+            server.close();
+        }
+        servers.clear();
+    }
+}
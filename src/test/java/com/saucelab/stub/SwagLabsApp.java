@@ -0,0 +1,330 @@
+package com.saucelab.stub;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scripted model of the Swag Labs Android app: login, products, product details and cart.
+ * Renders the current screen as a view tree using the same accessibility ids as the page objects.
+ * One instance per stand-in session; not thread-safe (the server serializes commands per session).
+ */
+final class SwagLabsApp {
+    
+    static final String PACKAGE = "com.swaglabsmobileapp";
+    static final String PASSWORD = "secret_sauce";
+    static final List<String> USERS = Arrays.asList("standard_user", "problem_user", "performance_glitch_user");
+    static final String LOCKED_OUT_USER = "locked_out_user";
+    
+    static final List<String[]> CATALOG = Collections.unmodifiableList(Arrays.asList(
+        new String[] {"Sauce Labs Backpack", "$29.99"},
+        new String[] {"Sauce Labs Bike Light", "$9.99"},
+        new String[] {"Sauce Labs Bolt T-Shirt", "$15.99"},
+        new String[] {"Sauce Labs Fleece Jacket", "$49.99"},
+        new String[] {"Sauce Labs Onesie", "$7.99"},
+        new String[] {"Test.allTheThings() T-Shirt (Red)", "$15.99"}));
+    
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 2280;
+    private static final int LIST_TOP = 420;
+    private static final int TILE_HEIGHT = 800;
+    private static final int COLUMNS = 2;
+    private static final int VISIBLE_ROWS = 2;
+    
+    enum Screen { LOGIN, PRODUCTS, DETAILS, CART }
+    
+    private Screen screen = Screen.LOGIN;
+    private boolean running = true;
+    private String username = "";
+    private String password = "";
+    private String error;
+    private int scrollRow;
+    private int detailsProduct;
+    // Product index -> quantity, in the order items were added
+    private final Map<Integer, Integer> cart = new LinkedHashMap<>();
+    
+    Screen getScreen() {
+        return screen;
+    }
+    
+    List<Integer> getCart() {
+        return new ArrayList<>(cart.keySet());
+    }
+    
+    /**
+     * Clears all app data, as "mobile: clearApp" does.
+     */
+    void clearData() {
+        screen = Screen.LOGIN;
+        username = "";
+        password = "";
+        error = null;
+        scrollRow = 0;
+        cart.clear();
+    }
+    
+    void terminate() {
+        running = false;
+    }
+    
+    void activate() {
+        if (!running) {
+            running = true;
+            scrollRow = 0;
+            if (screen != Screen.LOGIN) {
+                screen = Screen.PRODUCTS;
+            }
+        }
+    }
+    
+    /**
+     * Opens the products screen as an authenticated user, skipping the login form.
+     */
+    void openAuthenticated(String user) {
+        running = true;
+        username = user;
+        screen = Screen.PRODUCTS;
+        scrollRow = 0;
+    }
+    
+    /**
+     * Handles a deep link the way the real app does: swaglabs://swag-overview opens the
+     * product list without the login form.
+     * @return false if no screen handles the URL
+     */
+    boolean openDeepLink(String url) {
+        if (url.startsWith("swaglabs://swag-overview")) {
+            openAuthenticated(USERS.get(0));
+            return true;
+        }
+        return false;
+    }
+    
+    // ==================== INPUT ====================
+    
+    void clearField(String key) {
+        if ("login.username".equals(key)) {
+            username = "";
+        } else if ("login.password".equals(key)) {
+            password = "";
+        }
+    }
+    
+    void typeInto(String key, String text) {
+        if ("login.username".equals(key)) {
+            username += text;
+        } else if ("login.password".equals(key)) {
+            password += text;
+        }
+    }
+    
+    /**
+     * Scrolls the product list one row forward.
+     * @return true if the list moved
+     */
+    boolean scrollForward() {
+        if (screen != Screen.PRODUCTS || scrollRow >= maxScrollRow()) {
+            return false;
+        }
+        scrollRow++;
+        return true;
+    }
+    
+    /**
+     * Scrolls the product list until a product whose name contains the text is on screen.
+     * @return true if such a product exists
+     */
+    boolean scrollIntoView(String textContains) {
+        for (int i = 0; i < CATALOG.size(); i++) {
+            if (CATALOG.get(i)[0].contains(textContains)) {
+                int row = i / COLUMNS;
+                if (row < scrollRow) {
+                    scrollRow = row;
+                } else if (row >= scrollRow + VISIBLE_ROWS) {
+                    scrollRow = Math.min(maxScrollRow(), row - VISIBLE_ROWS + 1);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private int maxScrollRow() {
+        int rows = (CATALOG.size() + COLUMNS - 1) / COLUMNS;
+        return Math.max(0, rows - VISIBLE_ROWS);
+    }
+    
+    private void submitLogin() {
+        if (username.isEmpty()) {
+            error = "Username is required";
+        } else if (password.isEmpty()) {
+            error = "Password is required";
+        } else if (LOCKED_OUT_USER.equals(username)) {
+            error = "Sorry, this user has been locked out.";
+        } else if (USERS.contains(username) && PASSWORD.equals(password)) {
+            error = null;
+            screen = Screen.PRODUCTS;
+            scrollRow = 0;
+        } else {
+            error = "Username and password do not match any user in this service.";
+        }
+    }
+    
+    // ==================== RENDERING ====================
+    
+    /**
+     * Builds the view tree for the current screen.
+     * @return The root node
+     */
+    StubNode render() {
+        StubNode root = new StubNode("android.widget.FrameLayout", "root").bounds(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
+        if (!running) {
+            return root;
+        }
+        switch (screen) {
+            case LOGIN:
+                renderLogin(root);
+                break;
+            case PRODUCTS:
+                renderProducts(root);
+                break;
+            case DETAILS:
+                renderDetails(root);
+                break;
+            case CART:
+                renderCart(root);
+                break;
+            default:
+                break;
+        }
+        return root;
+    }
+    
+    private void renderLogin(StubNode root) {
+        root.add(new StubNode("android.widget.EditText", "login.username")
+            .desc("test-Username").text(username).bounds(60, 900, 960, 140));
+        root.add(new StubNode("android.widget.EditText", "login.password")
+            .desc("test-Password").text(mask(password)).bounds(60, 1080, 960, 140));
+        StubNode login = root.add(new StubNode("android.view.ViewGroup", "login.button")
+            .desc("test-LOGIN").bounds(60, 1260, 960, 140).onClick(this::submitLogin));
+        login.add(new StubNode("android.widget.TextView", "login.button.label").text("LOGIN").bounds(480, 1300, 120, 60));
+        if (error != null) {
+            StubNode box = root.add(new StubNode("android.view.ViewGroup", "login.error")
+                .desc("test-Error message").bounds(60, 1440, 960, 120));
+            box.add(new StubNode("android.widget.TextView", "login.error.text").text(error).bounds(80, 1460, 900, 80));
+        }
+    }
+    
+    private void renderHeader(StubNode root, String title) {
+        StubNode cartIcon = root.add(new StubNode("android.view.ViewGroup", "header.cart")
+            .desc("test-Cart").bounds(920, 120, 140, 140).onClick(() -> screen = Screen.CART));
+        if (!cart.isEmpty()) {
+            cartIcon.add(new StubNode("android.widget.TextView", "header.cart.badge")
+                .text(String.valueOf(cartQuantity())).bounds(1000, 130, 50, 50));
+        }
+        root.add(new StubNode("android.widget.TextView", "header.title." + title.replace(' ', '_')).text(title).bounds(40, 300, 600, 100));
+    }
+    
+    private void renderProducts(StubNode root) {
+        renderHeader(root, "PRODUCTS");
+        StubNode list = root.add(new StubNode("android.widget.ScrollView", "products.list")
+            .desc("test-PRODUCTS").bounds(0, LIST_TOP, SCREEN_WIDTH, SCREEN_HEIGHT - LIST_TOP));
+        list.scrollable = true;
+        StubNode zone = list.add(new StubNode("android.view.ViewGroup", "products.dropzone")
+            .desc("test-Cart drop zone").bounds(0, LIST_TOP, SCREEN_WIDTH, SCREEN_HEIGHT - LIST_TOP));
+        int first = scrollRow * COLUMNS;
+        int last = Math.min(CATALOG.size(), (scrollRow + VISIBLE_ROWS) * COLUMNS);
+        for (int i = first; i < last; i++) {
+            final int product = i;
+            int x = (i % COLUMNS) * (SCREEN_WIDTH / COLUMNS);
+            int y = LIST_TOP + (i / COLUMNS - scrollRow) * TILE_HEIGHT;
+            String key = "products.item." + i;
+            StubNode tile = zone.add(new StubNode("android.view.ViewGroup", key).desc("test-Item")
+                .bounds(x, y, SCREEN_WIDTH / COLUMNS, TILE_HEIGHT).onClick(() -> openDetails(product)));
+            tile.add(new StubNode("android.widget.TextView", key + ".title").desc("test-Item title")
+                .text(CATALOG.get(i)[0]).bounds(x + 20, y + 520, 500, 80));
+            tile.add(new StubNode("android.widget.TextView", key + ".price").desc("test-Price")
+                .text(CATALOG.get(i)[1]).bounds(x + 20, y + 620, 300, 60));
+            addCartToggle(tile, key, product, x + 20, y + 700);
+        }
+    }
+    
+    private void renderDetails(StubNode root) {
+        renderHeader(root, "PRODUCTS");
+        String key = "details." + detailsProduct;
+        root.add(new StubNode("android.view.ViewGroup", key + ".back").desc("test-BACK TO PRODUCTS")
+            .bounds(40, 420, 500, 80).onClick(() -> screen = Screen.PRODUCTS));
+        StubNode description = root.add(new StubNode("android.view.ViewGroup", key + ".description")
+            .desc("test-Description").bounds(40, 1400, 1000, 300));
+        description.add(new StubNode("android.widget.TextView", key + ".name")
+            .text(CATALOG.get(detailsProduct)[0]).bounds(60, 1420, 900, 80));
+        description.add(new StubNode("android.widget.TextView", key + ".text")
+            .text("A product from the Sauce Labs catalog.").bounds(60, 1510, 900, 160));
+        root.add(new StubNode("android.widget.TextView", key + ".price").desc("test-Price")
+            .text(CATALOG.get(detailsProduct)[1]).bounds(40, 1720, 300, 80));
+        addCartToggle(root, key, detailsProduct, 40, 1820);
+    }
+    
+    private void renderCart(StubNode root) {
+        renderHeader(root, "YOUR CART");
+        int y = 520;
+        for (Map.Entry<Integer, Integer> line : cart.entrySet()) {
+            final int product = line.getKey();
+            String key = "cart.line." + product;
+            StubNode item = root.add(new StubNode("android.view.ViewGroup", key).desc("test-Item").bounds(0, y, SCREEN_WIDTH, 300));
+            // As in the real app, test-Amount is a container; the number is the TextView inside it
+            StubNode amount = item.add(new StubNode("android.view.ViewGroup", key + ".amount").desc("test-Amount")
+                .bounds(40, y + 40, 60, 60));
+            amount.add(new StubNode("android.widget.TextView", key + ".amount.value")
+                .text(String.valueOf(line.getValue())).bounds(40, y + 40, 60, 60));
+            item.add(new StubNode("android.widget.TextView", key + ".title").desc("test-Item title")
+                .text(CATALOG.get(product)[0]).bounds(140, y + 40, 800, 80));
+            item.add(new StubNode("android.widget.TextView", key + ".price").desc("test-Price")
+                .text(CATALOG.get(product)[1]).bounds(140, y + 140, 300, 60));
+            item.add(new StubNode("android.view.ViewGroup", key + ".remove").desc("test-REMOVE")
+                .bounds(700, y + 200, 300, 80).onClick(() -> cart.remove(product)));
+            y += 320;
+        }
+        root.add(new StubNode("android.view.ViewGroup", "cart.continue").desc("test-CONTINUE SHOPPING")
+            .bounds(40, 2000, 480, 120).onClick(() -> {
+                screen = Screen.PRODUCTS;
+                scrollRow = 0;
+            }));
+        root.add(new StubNode("android.view.ViewGroup", "cart.checkout").desc("test-CHECKOUT")
+            .bounds(560, 2000, 480, 120));
+    }
+    
+    private void addCartToggle(StubNode parent, String key, int product, int x, int y) {
+        if (cart.containsKey(product)) {
+            parent.add(new StubNode("android.view.ViewGroup", key + ".remove").desc("test-REMOVE")
+                .bounds(x, y, 400, 80).onClick(() -> cart.remove(product)));
+        } else {
+            parent.add(new StubNode("android.view.ViewGroup", key + ".add").desc("test-ADD TO CART")
+                .bounds(x, y, 400, 80).onClick(() -> cart.put(product, 1)));
+        }
+    }
+    
+    private void openDetails(int product) {
+        detailsProduct = product;
+        screen = Screen.DETAILS;
+    }
+    
+    private int cartQuantity() {
+        int total = 0;
+        for (int quantity : cart.values()) {
+            total += quantity;
+        }
+        return total;
+    }
+    
+    private static String mask(String value) {
+        StringBuilder masked = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            masked.append('•');
+        }
+        return masked.toString();
+    }
+}
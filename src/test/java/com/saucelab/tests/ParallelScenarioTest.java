@@ -0,0 +1,58 @@
+package com.saucelab.tests;
+
+import com.saucelab.config.ConfigLoader;
+import com.saucelab.driver.DriverContext;
+import com.saucelab.driver.ScenarioRunner;
+import com.saucelab.pages.*;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Runs independent add-to-cart scenarios concurrently, each on its own session.
+ * Page objects get their driver context explicitly, so the scenarios run on executor
+ * threads (virtual threads with scenario.threads=virtual) instead of TestNG workers.
+ */
+public class ParallelScenarioTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(ParallelScenarioTest.class);
+    
+    @Test(description = "Add a different product to the cart in each concurrent scenario")
+    public void testConcurrentAddToCartScenarios() {
+        Map<String, ScenarioRunner.Scenario> scenarios = new LinkedHashMap<>();
+        int count = ConfigLoader.getIntProperty("scenario.count", 4);
+        for (int i = 0; i < count; i++) {
+            int productIndex = i % 2;
+            scenarios.put("add-to-cart-" + i, context -> addToCart(context, productIndex));
+        }
+        
+        List<ScenarioRunner.ScenarioResult> results = ScenarioRunner.fromConfig().runAll(scenarios);
+        
+        List<String> failed = results.stream()
+            .filter(result -> !result.isPassed())
+            .map(ScenarioRunner.ScenarioResult::toString)
+            .collect(Collectors.toList());
+        Assert.assertTrue(failed.isEmpty(), "ASSERTION FAILED: Scenarios failed: " + failed);
+        log.info("All {} scenarios passed", results.size());
+    }
+    
+    private static void addToCart(DriverContext context, int productIndex) {
+        ProductsPage productsPage = new LoginPage(context)
+            .login(ConfigLoader.getTestUsername(), ConfigLoader.getTestPassword());
+        Assert.assertTrue(productsPage.isProductsPageDisplayed(), "Products page should be displayed after login");
+        
+        String productName = productsPage.getProductNameAtIndex(productIndex);
+        ProductDetailsPage detailsPage = productsPage.selectProductByIndex(productIndex);
+        detailsPage.addToCart();
+        CartPage cartPage = detailsPage.goToCart();
+        
+        Assert.assertEquals(cartPage.getCartItemCount(), 1, "Cart should have exactly 1 item");
+        Assert.assertTrue(cartPage.isProductInCart(productName), "Product '" + productName + "' should be in cart");
+    }
+}
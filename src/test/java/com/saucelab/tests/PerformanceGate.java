@@ -0,0 +1,75 @@
+package com.saucelab.tests;
+
+import com.saucelab.config.ConfigLoader;
+import com.saucelab.metrics.PerformanceBaseline;
+import com.saucelab.metrics.StepTimings;
+import org.testng.Assert;
+import org.testng.annotations.AfterSuite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Records or checks the per-step timings collected by the tests through {@link StepTimings}.
+ * Runs as an @AfterSuite method so a regression shows up as a test failure and fails the build.
+ * Controlled by perf.mode in config.properties (off by default).
+ */
+public class PerformanceGate {
+    
+    private static final Logger log = LoggerFactory.getLogger(PerformanceGate.class);
+    
+    @AfterSuite(alwaysRun = true)
+    public void evaluateStepTimings() {
+        String mode = ConfigLoader.getPerfMode();
+        Map<String, List<Long>> run = StepTimings.samples();
+        if ("off".equals(mode) || run.isEmpty()) {
+            return;
+        }
+        Path baselineFile = Paths.get(ConfigLoader.getPerfBaselineFile());
+        PerformanceBaseline baseline = PerformanceBaseline.load(baselineFile);
+        
+        if ("record".equals(mode)) {
+            baseline.merge(run, ConfigLoader.getPerfBaselineSamples());
+            baseline.save(baselineFile);
+            return;
+        }
+        if (!"check".equals(mode)) {
+            throw new IllegalArgumentException("perf.mode must be off, record or check, was " + mode);
+        }
+        
+        int percentile = ConfigLoader.getPerfPercentile();
+        List<PerformanceBaseline.StepDiff> diffs = baseline.compare(run, percentile,
+            ConfigLoader.getPerfTolerancePercent(), ConfigLoader.getPerfToleranceMillis());
+        String report = PerformanceBaseline.diffReport(diffs, percentile);
+        log.info("Step timings against {}\n{}", baselineFile, report);
+        writeReport(Paths.get(ConfigLoader.getPerfReportOutput()), report);
+        
+        List<String> regressions = diffs.stream()
+            .filter(PerformanceBaseline.StepDiff::isRegression)
+            .map(diff -> String.format("%s %d ms -> %d ms (limit %d ms)",
+                diff.getStep(), diff.getBaselineMillis(), diff.getCurrentMillis(), diff.getLimitMillis()))
+            .collect(Collectors.toList());
+        Assert.assertTrue(regressions.isEmpty(),
+            "Performance regression in " + regressions.size() + " step(s): " + String.join("; ", regressions)
+            + "\n" + report);
+    }
+    
+    private static void writeReport(Path output, String report) {
+        try {
+            if (output.getParent() != null) {
+                Files.createDirectories(output.getParent());
+            }
+            Files.write(output, report.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warn("Failed to write performance report: {}", e.getMessage());
+        }
+    }
+}
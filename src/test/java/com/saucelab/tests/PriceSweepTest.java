@@ -0,0 +1,44 @@
+package com.saucelab.tests;
+
+import com.saucelab.config.ConfigLoader;
+import com.saucelab.driver.DriverManager;
+import com.saucelab.pages.*;
+import org.testng.Assert;
+import org.testng.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks the price of every product in the catalog on the product list, the details
+ * page and the cart, and reports all mismatches together.
+ */
+public class PriceSweepTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(PriceSweepTest.class);
+    
+    @BeforeClass
+    public void setUp() {
+        DriverManager.initDriver();
+    }
+    
+    @AfterClass
+    public void tearDown() {
+        DriverManager.quitDriver();
+    }
+    
+    @Test(description = "Every product has the same price on the list, details and cart")
+    public void testCatalogPriceConsistency() {
+        ProductsPage productsPage = new LoginPage()
+            .login(ConfigLoader.getTestUsername(), ConfigLoader.getTestPassword());
+        Assert.assertTrue(productsPage.isProductsPageDisplayed(), "Products page should be displayed after login");
+        
+        PriceSweep.Result result = new PriceSweep(productsPage).run();
+        result.getRecords().forEach(record -> log.info("{}", record));
+        
+        // ASSERTION: The sweep saw the catalog, and every price matches on all three screens
+        Assert.assertFalse(result.getRecords().isEmpty(), "ASSERTION FAILED: Sweep found no products");
+        Assert.assertTrue(result.getMismatches().isEmpty(),
+            "ASSERTION FAILED: " + result.getMismatches().size() + " price mismatch(es):\n"
+                + String.join("\n", result.getMismatches()));
+    }
+}
@@ -2,13 +2,21 @@ package com.saucelab.tests;
 
 import com.saucelab.config.ConfigLoader;
 import com.saucelab.driver.DriverManager;
+import com.saucelab.metrics.StepTimings;
 import com.saucelab.pages.*;
 import org.testng.Assert;
 import org.testng.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 
 /**
  * End-to-End Shopping Flow Test for SauceLabs Demo App.
  * Test Flow:
+ * 0. Locked out user is rejected with an error
  * 1. Login with valid credentials
  * 2. Verify Products page is displayed
  * 3. Select a product and view details
@@ -16,11 +24,17 @@ import org.testng.annotations.*;
  * 5. Navigate to cart and verify item
  * 6. Remove from cart and verify empty
  * 7. Price validation across pages
+ * 8. Crawl the whole catalog in one scroll pass
  * 
  * @author Abhinav Singh
  */
 public class ShoppingFlowTest {
     
+    private static final Logger log = LoggerFactory.getLogger(ShoppingFlowTest.class);
+    
+    // Products in the Swag Labs catalog; only some of them fit on screen
+    private static final int CATALOG_SIZE = 6;
+    
     private LoginPage loginPage;
     private ProductsPage productsPage;
     private ProductDetailsPage detailsPage;
@@ -32,27 +46,47 @@ public class ShoppingFlowTest {
     
     @BeforeClass
     public void setUp() {
-        System.out.println("\n========================================");
-        System.out.println("  SAUCELAB MOBILE AUTOMATION TEST");
-        System.out.println("========================================\n");
+        log.info("========================================");
+        log.info("  SAUCELAB MOBILE AUTOMATION TEST");
+        log.info("========================================");
         
         // Initialize driver
         DriverManager.initDriver();
-        System.out.println("[SETUP] Test setup completed\n");
+        log.info("Test setup completed");
     }
     
     @AfterClass
     public void tearDown() {
-        System.out.println("\n[TEARDOWN] Cleaning up...");
+        log.info("Cleaning up...");
         DriverManager.quitDriver();
-        System.out.println("[TEARDOWN] Test teardown completed\n");
+        log.info("Test teardown completed");
     }
     
     // ==================== PART 1: LOGIN ====================
     
-    @Test(priority = 1, description = "Login with valid credentials and verify Products page")
+    @Test(priority = 0, description = "Locked out user sees an error instead of the Products page")
+    public void testLockedOutLogin() {
+        log.info("--- TEST: Locked Out Login ---");
+        
+        loginPage = new LoginPage();
+        String outcome = loginPage.enterUsername("locked_out_user")
+            .enterPassword(ConfigLoader.getTestPassword())
+            .submit();
+        
+        // ASSERTION: The error outcome wins and says why
+        Assert.assertEquals(outcome, LoginPage.OUTCOME_ERROR,
+            "ASSERTION FAILED: Locked out user should not reach the Products page");
+        String error = loginPage.getErrorMessage();
+        Assert.assertTrue(error != null && error.contains("locked out"),
+            "ASSERTION FAILED: Error should say the user is locked out, was: " + error);
+        log.info("Login rejected: {}", error);
+    }
+    
+    // Starts on the login form the locked-out check leaves behind; the link keeps both on one shard
+    @Test(priority = 1, dependsOnMethods = "testLockedOutLogin",
+          description = "Login with valid credentials and verify Products page")
     public void testLogin() {
-        System.out.println("\n--- TEST: Login ---");
+        log.info("--- TEST: Login ---");
         
         // Initialize Login Page
         loginPage = new LoginPage();
@@ -61,17 +95,20 @@ public class ShoppingFlowTest {
         String username = ConfigLoader.getTestUsername();
         String password = ConfigLoader.getTestPassword();
         
-        System.out.println("[TEST] Logging in with username: " + username);
+        log.info("Logging in with username: {}", username);
         
-        // Perform login
+        // Perform login (timed until the Products page is confirmed)
+        StepTimings.Step step = StepTimings.start("login");
         productsPage = loginPage.login(username, password);
+        boolean productsDisplayed = productsPage.isProductsPageDisplayed();
+        step.stop();
         
         // ASSERTION: Verify Products page is displayed
-        Assert.assertTrue(productsPage.isProductsPageDisplayed(), 
+        Assert.assertTrue(productsDisplayed, 
             "ASSERTION FAILED: Products page should be displayed after login");
         
-        System.out.println("[TEST] Login successful - Products page is displayed");
-        System.out.println("[TEST] Page title: " + productsPage.getPageTitle());
+        log.info("Login successful - Products page is displayed");
+        log.info("Page title: {}", productsPage.getPageTitle());
     }
     
     // ==================== PART 2: PRODUCT LIST ====================
@@ -79,20 +116,23 @@ public class ShoppingFlowTest {
     @Test(priority = 2, dependsOnMethods = "testLogin", 
           description = "Select a product from the list and open details")
     public void testSelectProduct() {
-        System.out.println("\n--- TEST: Select Product ---");
+        log.info("--- TEST: Select Product ---");
         
         // Store product info before selecting (for later validation)
         selectedProductName = productsPage.getProductNameAtIndex(0);
         selectedProductPrice = productsPage.getProductPriceAtIndex(0);
         
-        System.out.println("[TEST] Selected product: " + selectedProductName);
-        System.out.println("[TEST] Selected price: " + selectedProductPrice);
+        log.info("Selected product: {}", selectedProductName);
+        log.info("Selected price: {}", selectedProductPrice);
         
         // Select the first product (this sets expectedProductName in ProductDetailsPage)
+        StepTimings.Step step = StepTimings.start("open details");
         detailsPage = productsPage.selectFirstProduct();
+        boolean detailsDisplayed = detailsPage.isProductDetailsPageDisplayed(selectedProductName);
+        step.stop();
         
         // ASSERTION: Verify Product Details page is displayed with correct product name
-        Assert.assertTrue(detailsPage.isProductDetailsPageDisplayed(selectedProductName), 
+        Assert.assertTrue(detailsDisplayed, 
             "ASSERTION FAILED: Product Details page should be displayed with product: " + selectedProductName);
         
         // ASSERTION: Verify product name matches
@@ -100,8 +140,8 @@ public class ShoppingFlowTest {
         Assert.assertEquals(detailsName, selectedProductName, 
             "ASSERTION FAILED: Product name on details page should match selected product");
         
-        System.out.println("[TEST] Product details page displayed correctly");
-        System.out.println("[TEST] Product name verified: " + detailsName);
+        log.info("Product details page displayed correctly");
+        log.info("Product name verified: {}", detailsName);
     }
     
     // ==================== PART 3: ADD TO CART ====================
@@ -109,22 +149,28 @@ public class ShoppingFlowTest {
     @Test(priority = 3, dependsOnMethods = "testSelectProduct", 
           description = "Add product to cart and verify in cart")
     public void testAddToCart() {
-        System.out.println("\n--- TEST: Add to Cart ---");
+        log.info("--- TEST: Add to Cart ---");
         
         // Add product to cart
+        StepTimings.Step step = StepTimings.start("add to cart");
         detailsPage.addToCart();
+        boolean removeDisplayed = detailsPage.isRemoveButtonDisplayed();
+        step.stop();
         
         // ASSERTION: Remove button should appear (indicates item was added)
-        Assert.assertTrue(detailsPage.isRemoveButtonDisplayed(), 
+        Assert.assertTrue(removeDisplayed, 
             "ASSERTION FAILED: Remove button should be displayed after adding to cart");
         
-        System.out.println("[TEST] Product added to cart - Remove button visible");
+        log.info("Product added to cart - Remove button visible");
         
         // Navigate to cart
+        step = StepTimings.start("open cart");
         cartPage = detailsPage.goToCart();
+        boolean cartDisplayed = cartPage.isCartPageDisplayed();
+        step.stop();
         
         // ASSERTION: Cart page is displayed
-        Assert.assertTrue(cartPage.isCartPageDisplayed(), 
+        Assert.assertTrue(cartDisplayed, 
             "ASSERTION FAILED: Cart page should be displayed");
         
         // ASSERTION: Cart has 1 item
@@ -136,8 +182,12 @@ public class ShoppingFlowTest {
         Assert.assertTrue(cartPage.isProductInCart(selectedProductName), 
             "ASSERTION FAILED: Product '" + selectedProductName + "' should be in cart");
         
-        System.out.println("[TEST] Cart verified - Contains: " + selectedProductName);
-        System.out.println("[TEST] Cart count: " + cartCount);
+        // ASSERTION: Cart lines match what the flow added (name, quantity, price)
+        CartDiff diff = cartPage.verifyExpectedCart();
+        Assert.assertTrue(diff.isEmpty(), "ASSERTION FAILED: Cart differs from expected: " + diff);
+        
+        log.info("Cart verified - Contains: {}", selectedProductName);
+        log.info("Cart count: {}", cartCount);
     }
     
     // ==================== BONUS A: REMOVE FROM CART ====================
@@ -145,19 +195,21 @@ public class ShoppingFlowTest {
     @Test(priority = 4, dependsOnMethods = "testAddToCart", 
           description = "BONUS: Remove item from cart and verify empty")
     public void testRemoveFromCart() {
-        System.out.println("\n--- TEST (BONUS A): Remove from Cart ---");
+        log.info("--- TEST (BONUS A): Remove from Cart ---");
         
-        // Remove the item
+        // Remove the item; isCartEmpty polls until the row is gone, so no fixed sleep is needed
+        StepTimings.Step step = StepTimings.start("remove");
         cartPage.removeFirstItem();
-        
-        // Wait a moment for UI update
-        try { Thread.sleep(1000); } catch (InterruptedException e) {}
+        boolean cartEmpty = cartPage.isCartEmpty();
+        step.stop();
         
         // ASSERTION: Cart should be empty
-        Assert.assertTrue(cartPage.isCartEmpty(), 
+        Assert.assertTrue(cartEmpty, 
             "ASSERTION FAILED: Cart should be empty after removing item");
+        CartDiff diff = cartPage.verifyExpectedCart();
+        Assert.assertTrue(diff.isEmpty(), "ASSERTION FAILED: Cart differs from expected: " + diff);
         
-        System.out.println("[TEST] Item removed - Cart is now empty");
+        log.info("Item removed - Cart is now empty");
     }
     
     // ==================== BONUS B: PRICE VALIDATION ====================
@@ -165,19 +217,19 @@ public class ShoppingFlowTest {
     @Test(priority = 5, dependsOnMethods = "testRemoveFromCart", 
           description = "BONUS: Add item again and validate price across pages")
     public void testPriceValidation() {
-        System.out.println("\n--- TEST (BONUS B): Price Validation ---");
+        log.info("--- TEST (BONUS B): Price Validation ---");
         
         // Go back to products and add item again
         productsPage = cartPage.continueShopping();
         
         // Get price from product list
         String listPrice = productsPage.getProductPriceAtIndex(0);
-        System.out.println("[TEST] Price on Products page: " + listPrice);
+        log.info("Price on Products page: {}", listPrice);
         
         // Go to details
         detailsPage = productsPage.selectFirstProduct();
         String detailsPrice = detailsPage.getProductPrice();
-        System.out.println("[TEST] Price on Details page: " + detailsPrice);
+        log.info("Price on Details page: {}", detailsPrice);
         
         // ASSERTION: Price should match on list and details
         Assert.assertEquals(detailsPrice, listPrice, 
@@ -189,13 +241,43 @@ public class ShoppingFlowTest {
         // Go to cart
         cartPage = detailsPage.goToCart();
         String cartPrice = cartPage.getFirstItemPrice();
-        System.out.println("[TEST] Price on Cart page: " + cartPrice);
+        log.info("Price on Cart page: {}", cartPrice);
         
         // ASSERTION: Price should match in cart
         Assert.assertEquals(cartPrice, listPrice, 
             "ASSERTION FAILED: Price should be same in Cart as on Products page");
         
-        System.out.println("[TEST] Price validated across all pages: " + listPrice);
+        log.info("Price validated across all pages: {}", listPrice);
+    }
+    
+    // ==================== CATALOG CRAWL ====================
+    
+    @Test(priority = 6, dependsOnMethods = "testPriceValidation",
+          description = "Crawl the whole catalog in one scroll pass")
+    public void testCatalogCrawl() {
+        log.info("--- TEST: Catalog Crawl ---");
+        
+        productsPage = cartPage.continueShopping();
+        int visibleCount = productsPage.getProductCount();
+        
+        List<ProductTile> streamed = new ArrayList<>();
+        CatalogCrawler.CrawlResult result = productsPage.crawlCatalog(streamed::add);
+        List<ProductTile> products = result.getProducts();
+        log.info("Catalog: {}", result);
+        
+        // ASSERTION: Crawl reaches below the fold and sees every product once
+        Assert.assertTrue(result.getScrollCount() >= 1, "ASSERTION FAILED: Crawl should scroll at least once");
+        Assert.assertTrue(products.size() > visibleCount,
+            "ASSERTION FAILED: Crawl should see more than the " + visibleCount + " products on screen");
+        Assert.assertEquals(products.size(), CATALOG_SIZE, "ASSERTION FAILED: Crawl should see the whole catalog");
+        Assert.assertEquals(streamed, products, "ASSERTION FAILED: Every product should be streamed once, in order");
+        HashSet<String> names = new HashSet<>();
+        for (ProductTile tile : products) {
+            Assert.assertNotNull(tile.getName(), "ASSERTION FAILED: Product name missing: " + tile);
+            Assert.assertNotNull(tile.getPrice(), "ASSERTION FAILED: Product price missing: " + tile);
+            Assert.assertTrue(names.add(tile.getName()), "ASSERTION FAILED: Duplicate product: " + tile);
+        }
+        Assert.assertTrue(result.getScrollCount() <= products.size(),
+            "ASSERTION FAILED: Crawl should stop once a scroll reveals nothing new");
     }
-
 }